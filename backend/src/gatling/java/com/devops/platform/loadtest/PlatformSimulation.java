@@ -0,0 +1,166 @@
+package com.devops.platform.loadtest;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.PopulationBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Session;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Сквозная нагрузка на платформу при открытой модели: новые пользователи
+ * приходят с заданной частотой независимо от того, успевает ли сервер.
+ * <ul>
+ *     <li>auth — регистрация, вход, обновление токена, /me;</li>
+ *     <li>projects — регистрация, создание проекта, ожидание провижининга, чтение списка и дашборда;</li>
+ *     <li>pipelines — то же плюс запуск сборки и опрос пайплайна до завершения.</li>
+ * </ul>
+ * GitLab — встроенный FakeGitLabServer (профиль fake-gitlab), его задержка
+ * и доля ошибок задаются на стороне приложения.
+ * Параметры (-D): baseUrl, scenarios (через запятую, по умолчанию все три),
+ * rps (для каждого сценария; переопределяются authRps, projectRps, pipelineRps),
+ * duration (секунды), p99Ms, maxFailedPercent.
+ */
+public class PlatformSimulation extends Simulation {
+
+    private static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+    private static final double RPS = Double.parseDouble(System.getProperty("rps", "5"));
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("duration", 60));
+    private static final Set<String> SCENARIOS = Set.of(
+            System.getProperty("scenarios", "auth,projects,pipelines").split("\\s*,\\s*"));
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(500);
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final Set<String> PIPELINE_FINISHED = Set.of("success", "failed", "canceled", "skipped");
+
+    // Имена уникальны между прогонами: пользователи и проекты в БД не удаляются
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36);
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final HttpProtocolBuilder protocol = http
+            .baseUrl(BASE_URL)
+            .acceptHeader("application/json")
+            .contentTypeHeader("application/json")
+            .shareConnections();
+
+    private final Iterator<Map<String, Object>> accounts = Stream.generate(() -> {
+        String name = "lt" + RUN + "-" + SEQUENCE.incrementAndGet();
+        return Map.<String, Object>of("username", name, "email", name + "@load.test");
+    }).iterator();
+
+    // =========================================================================
+    //  STEPS
+    // =========================================================================
+
+    private final ChainBuilder register = feed(accounts)
+            .exec(http("register").post("/api/auth/register")
+                    .body(StringBody("""
+                            {"username":"#{username}","email":"#{email}","password":"secret123"}"""))
+                    .check(status().is(200), jsonPath("$.token").saveAs("token")))
+            .exitHereIfFailed();
+
+    private final ChainBuilder login = exec(http("login").post("/api/auth/login")
+            .body(StringBody("""
+                    {"email":"#{email}","password":"secret123"}"""))
+            .check(status().is(200), jsonPath("$.token").saveAs("token"),
+                    jsonPath("$.refreshToken").saveAs("refreshToken")));
+
+    private final ChainBuilder refresh = exec(http("refresh").post("/api/auth/refresh")
+            .body(StringBody("""
+                    {"refreshToken":"#{refreshToken}"}"""))
+            .check(status().is(200), jsonPath("$.token").saveAs("token"),
+                    jsonPath("$.refreshToken").saveAs("refreshToken")));
+
+    private final ChainBuilder createProject = exec(http("create project").post("/api/projects")
+            .header("Authorization", "Bearer #{token}")
+            .body(StringBody("""
+                    {"name":"#{username}","stack":{"backend":"java","frontend":"angular","database":"postgres","useDocker":true}}"""))
+            .check(status().is(202), jsonPath("$.id").saveAs("projectId")))
+            .exitHereIfFailed()
+            .exec(session -> session.set("provisioning", "pending"))
+            .asLongAsDuring(session -> !isProvisioned(session), POLL_TIMEOUT).on(
+                    pause(POLL_INTERVAL)
+                            .exec(authorized("provisioning status", "/api/projects/#{projectId}/provisioning")
+                                    .check(jsonPath("$.status").saveAs("provisioning"))))
+            .exec(session -> "active".equals(session.getString("provisioning"))
+                    ? session : session.markAsFailed())
+            .exitHereIfFailed();
+
+    private final ChainBuilder browseProjects = exec(
+            authorized("list projects", "/api/projects"),
+            authorized("get project", "/api/projects/#{projectId}"),
+            authorized("project stats", "/api/projects/#{projectId}/stats"),
+            authorized("dashboard", "/api/projects/dashboard"));
+
+    private final ChainBuilder runBuild = exec(http("trigger build").post("/api/projects/#{projectId}/build")
+            .header("Authorization", "Bearer #{token}")
+            .check(status().is(200), jsonPath("$.data.status").saveAs("pipeline")))
+            .exitHereIfFailed()
+            .asLongAsDuring(session -> !PIPELINE_FINISHED.contains(session.getString("pipeline")), POLL_TIMEOUT).on(
+                    pause(POLL_INTERVAL)
+                            .exec(authorized("pipeline status", "/api/projects/#{projectId}/pipeline")
+                                    .check(jsonPath("$.status").saveAs("pipeline"))))
+            .exec(session -> "success".equals(session.getString("pipeline"))
+                    ? session : session.markAsFailed())
+            .exec(authorized("pipeline history", "/api/projects/#{projectId}/pipeline/history"));
+
+    // =========================================================================
+    //  SCENARIOS
+    // =========================================================================
+
+    private final ScenarioBuilder auth = scenario("auth")
+            .exec(register, login, refresh, authorized("me", "/api/auth/me"));
+
+    private final ScenarioBuilder projects = scenario("projects")
+            .exec(register, createProject, browseProjects);
+
+    private final ScenarioBuilder pipelines = scenario("pipelines")
+            .exec(register, createProject, runBuild);
+
+    {
+        List<PopulationBuilder> populations = new ArrayList<>();
+        if (SCENARIOS.contains("auth")) {
+            populations.add(auth.injectOpen(constantUsersPerSec(rate("authRps")).during(DURATION)));
+        }
+        if (SCENARIOS.contains("projects")) {
+            populations.add(projects.injectOpen(constantUsersPerSec(rate("projectRps")).during(DURATION)));
+        }
+        if (SCENARIOS.contains("pipelines")) {
+            populations.add(pipelines.injectOpen(constantUsersPerSec(rate("pipelineRps")).during(DURATION)));
+        }
+        setUp(populations)
+                .protocols(protocol)
+                .assertions(
+                        global().responseTime().percentile(99.0).lt(Integer.getInteger("p99Ms", 2000)),
+                        global().failedRequests().percent().lt(
+                                Double.parseDouble(System.getProperty("maxFailedPercent", "1"))));
+    }
+
+    private static HttpRequestActionBuilder authorized(String name, String path) {
+        return http(name).get(path)
+                .header("Authorization", "Bearer #{token}")
+                .check(status().is(200));
+    }
+
+    private static boolean isProvisioned(Session session) {
+        String status = session.getString("provisioning");
+        return "active".equals(status) || "failed".equals(status);
+    }
+
+    private static double rate(String property) {
+        return Double.parseDouble(System.getProperty(property, String.valueOf(RPS)));
+    }
+}
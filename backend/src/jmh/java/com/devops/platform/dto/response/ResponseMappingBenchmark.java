@@ -0,0 +1,109 @@
+package com.devops.platform.dto.response;
+
+import com.devops.platform.entity.Pipeline;
+import com.devops.platform.entity.PipelineStage;
+import com.devops.platform.entity.Project;
+import com.devops.platform.entity.TechStack;
+import com.devops.platform.entity.enums.BackendTech;
+import com.devops.platform.entity.enums.DatabaseTech;
+import com.devops.platform.entity.enums.FrontendTech;
+import com.devops.platform.entity.enums.PipelineStatus;
+import com.devops.platform.entity.enums.ProjectStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг сущностей в DTO ответов на уже загруженных объектах (без Hibernate).
+ * stages — число стадий пайплайна: 3 у типового build/test/deploy, 20 — длинный CI.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    private Project project;
+
+    @Setup
+    public void setUp() {
+        project = project();
+    }
+
+    @State(Scope.Benchmark)
+    public static class PipelineState {
+
+        @Param({"3", "20"})
+        public int stages;
+
+        private Pipeline pipeline;
+
+        @Setup
+        public void setUp() {
+            pipeline = Pipeline.builder()
+                    .id(10L)
+                    .gitlabPipelineId(1001L)
+                    .status(PipelineStatus.RUNNING)
+                    .startedAt(LocalDateTime.now())
+                    .project(project())
+                    .build();
+            List<PipelineStage> pipelineStages = new ArrayList<>();
+            for (int i = 0; i < stages; i++) {
+                pipelineStages.add(PipelineStage.builder()
+                        .id((long) i)
+                        .name("job-" + i)
+                        .gitlabJobId(10_000L + i)
+                        .status(i == 0 ? PipelineStatus.SUCCESS : PipelineStatus.PENDING)
+                        .pipeline(pipeline)
+                        .build());
+            }
+            pipeline.setStages(pipelineStages);
+        }
+    }
+
+    private static Project project() {
+        LocalDateTime now = LocalDateTime.now();
+        return Project.builder()
+                .id(1L)
+                .name("demo-app")
+                .description("Demo project")
+                .status(ProjectStatus.ACTIVE)
+                .stack(TechStack.builder()
+                        .backend(BackendTech.JAVA)
+                        .frontend(FrontendTech.REACT)
+                        .database(DatabaseTech.POSTGRES)
+                        .useDocker(true)
+                        .build())
+                .gitlabProjectId(101L)
+                .gitlabUrl("http://gitlab.local:8929/grp/proj-demo-demo-app")
+                .gitCloneUrl("http://gitlab.local:8929/grp/proj-demo-demo-app.git")
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    @Benchmark
+    public ProjectResponse projectFromEntity() {
+        return ProjectResponse.fromEntity(project);
+    }
+
+    @Benchmark
+    public PipelineResponse pipelineFromEntity(PipelineState state) {
+        return PipelineResponse.fromEntity(state.pipeline);
+    }
+}
@@ -0,0 +1,41 @@
+package com.devops.platform.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нормализация имён для GitLab ({@link GitLabService#sanitizeUsername},
+ * {@link GitLabService#sanitizeProjectPath}) — вызывается на каждое создание
+ * пользователя и проекта. Входы: уже чистое имя, имя со спецсимволами, кириллица.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GitLabSanitizeBenchmark {
+
+    @Param({"demo-app", "My Project (v2)!! -- final__", "Проект Учёта Заявок"})
+    public String input;
+
+    @Benchmark
+    public String sanitizeUsername() {
+        return GitLabService.sanitizeUsername(input);
+    }
+
+    @Benchmark
+    public String sanitizeProjectPath() {
+        return GitLabService.sanitizeProjectPath(input);
+    }
+}
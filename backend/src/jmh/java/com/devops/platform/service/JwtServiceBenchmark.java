@@ -0,0 +1,74 @@
+package com.devops.platform.service;
+
+import com.devops.platform.config.AuthenticatedUser;
+import com.devops.platform.entity.User;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка JWT. claimsCacheSize = 0 — каждый разбор с HMAC и JSON,
+ * 10000 — повторный токен из кэша проверенных (как у JwtAuthenticationFilter).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET =
+            "bXlTZWNyZXRLZXlGb3JKV1RUb2tlbkdlbmVyYXRpb25UaGF0SXNBdExlYXN0MjU2Qml0c0xvbmcxMjM0NTY=";
+
+    @Param({"0", "10000"})
+    public int claimsCacheSize;
+
+    private JwtService jwtService;
+    private User user;
+    private AuthenticatedUser principal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 86_400_000L, claimsCacheSize, new SimpleMeterRegistry());
+        user = User.builder()
+                .id(42L)
+                .username("demo")
+                .email("demo@example.com")
+                .password("{bcrypt}hash")
+                .gitlabUserId(7L)
+                .gitlabUsername("demo")
+                .build();
+        token = jwtService.generateToken(user);
+        Claims claims = jwtService.parseToken(token);
+        principal = AuthenticatedUser.fromClaims(claims);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, principal);
+    }
+}
@@ -0,0 +1,71 @@
+package com.devops.platform.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Подбор auth.password.bcrypt-cost под бюджет задержки входа на своём железе:
+ * берём наибольший cost, у которого matches укладывается в бюджет (например 250 ms).
+ * matchesConcurrent — 8 одновременных входов на пул по умолчанию (половина ядер):
+ * p99 из SampleTime включает ожидание в очереди пула.
+ * Запуск: mvn -Pjmh -DskipTests verify -Djmh.include=PasswordHashingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct-horse-battery";
+
+    @Param({"8", "10", "11", "12"})
+    public int cost;
+
+    private PasswordHashingService hashingService;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        hashingService = new PasswordHashingService(new SimpleMeterRegistry(), cost, 0, 1000, Duration.ofMinutes(1));
+        hash = hashingService.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        hashingService.shutdown();
+    }
+
+    @Benchmark
+    public String encode() {
+        return hashingService.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return hashingService.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @BenchmarkMode(Mode.SampleTime)
+    public boolean matchesConcurrent() {
+        return hashingService.matches(PASSWORD, hash);
+    }
+}
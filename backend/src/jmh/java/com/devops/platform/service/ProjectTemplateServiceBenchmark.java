@@ -0,0 +1,64 @@
+package com.devops.platform.service;
+
+import com.devops.platform.entity.TechStack;
+import com.devops.platform.entity.enums.BackendTech;
+import com.devops.platform.entity.enums.DatabaseTech;
+import com.devops.platform.entity.enums.FrontendTech;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProjectTemplateService#generateProjectFiles} для каждого {@link TechStack}.
+ * Скелет стека после первого вызова берётся из кэша — меряется установившийся режим.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectTemplateServiceBenchmark {
+
+    @Param({"JAVA", "PYTHON", "CSHARP"})
+    public BackendTech backend;
+
+    @Param({"REACT", "VUE", "ANGULAR"})
+    public FrontendTech frontend;
+
+    @Param({"true", "false"})
+    public boolean useDocker;
+
+    private ProjectTemplateService projectTemplateService;
+    private TechStack stack;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TemplateService templateService = new TemplateService(new TemplateIndex(meterRegistry));
+        projectTemplateService = new ProjectTemplateService(templateService, meterRegistry, 32);
+        stack = TechStack.builder()
+                .backend(backend)
+                .frontend(frontend)
+                .database(DatabaseTech.POSTGRES)
+                .useDocker(useDocker)
+                .build();
+    }
+
+    @Benchmark
+    public Map<String, String> generateProjectFiles() {
+        return projectTemplateService.generateProjectFiles("Demo App", stack);
+    }
+}
@@ -0,0 +1,79 @@
+package com.devops.platform.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TemplateService#loadTemplate} по всем шаблонам одного каталога templates/.
+ * Одна операция — рендеринг всех файлов каталога.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateServiceBenchmark {
+
+    @Param({"gitlab-ci", "docker-compose", "database", "ansible",
+            "backend/java", "backend/python", "backend/csharp",
+            "frontend/react", "frontend/vue", "frontend/angular"})
+    public String directory;
+
+    private TemplateService templateService;
+    private List<String> paths;
+    private Map<String, String> variables;
+
+    @Setup
+    public void setUp() {
+        TemplateIndex index = new TemplateIndex(new SimpleMeterRegistry());
+        templateService = new TemplateService(index);
+        paths = index.paths().stream()
+                .filter(path -> path.startsWith(directory + "/"))
+                .sorted()
+                .toList();
+        if (paths.isEmpty()) {
+            throw new IllegalStateException("No templates in templates/" + directory);
+        }
+
+        // Те же ключи, что у ProjectTemplateService.createBaseVariables
+        variables = new LinkedHashMap<>();
+        variables.put("PROJECT_NAME", "Demo App");
+        variables.put("project_name", "demoapp");
+        variables.put("project-name", "demo-app");
+        variables.put("project_name_py", "demo_app");
+        variables.put("project_name_db", "demo_app");
+        variables.put("PACKAGE_NAME", "demoapp");
+        variables.put("PACKAGE_PATH", "com/example/demoapp");
+        variables.put("BACKEND_TECH", "java");
+        variables.put("FRONTEND_TECH", "react");
+        variables.put("BACKEND_LABEL", "Java");
+        variables.put("FRONTEND_LABEL", "React");
+        variables.put("USE_DOCKER", "true");
+        variables.put("BACKEND_PORT", "8080");
+        variables.put("DB_NAME", "demo_app_db");
+    }
+
+    @Benchmark
+    public void loadTemplate(Blackhole blackhole) {
+        for (String path : paths) {
+            blackhole.consume(templateService.loadTemplate(path, variables));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.devops.platform.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    @Value("${provisioning.executor.core-size:4}")
+    private int provisioningCoreSize;
+
+    @Value("${provisioning.executor.max-size:8}")
+    private int provisioningMaxSize;
+
+    @Value("${provisioning.executor.queue-capacity:100}")
+    private int provisioningQueueCapacity;
+
+    @Value("${provisioning.executor.virtual-max-concurrency:200}")
+    private int provisioningVirtualMaxConcurrency;
+
+    @Value("${pipelines.stream.executor.core-size:4}")
+    private int streamCoreSize;
+
+    @Value("${pipelines.stream.executor.max-size:16}")
+    private int streamMaxSize;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    /**
+     * Фоновое создание проектов в GitLab. Сверх лимита задача отклоняется
+     * (TaskRejectedException), а не выполняется в потоке HTTP-запроса.
+     * Платформенные потоки — ограниченный пул core/max/queue.
+     * С spring.threads.virtual.enabled=true (нужна Java 21) — виртуальный поток на задачу
+     * и лимит virtual-max-concurrency одновременных созданий: ожидание ответа GitLab
+     * не занимает поток ОС, а нагрузку на GitLab дальше ограничивает bulkhead GitLabResilience.
+     */
+    @Bean(name = "provisioningExecutor")
+    public AsyncTaskExecutor provisioningExecutor() {
+        if (virtualThreadsEnabled) {
+            return new BoundedVirtualThreadExecutor("provisioning-",
+                    provisioningVirtualMaxConcurrency, Duration.ofSeconds(30));
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(provisioningCoreSize);
+        executor.setMaxPoolSize(provisioningMaxSize);
+        executor.setQueueCapacity(provisioningQueueCapacity);
+        executor.setThreadNamePrefix("provisioning-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Потоки, которыми Spring MVC пишет элементы Flux (SSE) в ответ.
+     * Без него MVC берёт SimpleAsyncTaskExecutor — новый поток на каждую запись.
+     * С виртуальными потоками пул не нужен: запись короткая, поток на задачу дёшев.
+     */
+    @Bean(name = "streamExecutor")
+    public AsyncTaskExecutor streamExecutor() {
+        if (virtualThreadsEnabled) {
+            return new VirtualThreadTaskExecutor("sse-");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamCoreSize);
+        executor.setMaxPoolSize(streamMaxSize);
+        executor.setThreadNamePrefix("sse-");
+        executor.initialize();
+        return executor;
+    }
+}
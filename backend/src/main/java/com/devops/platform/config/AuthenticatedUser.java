@@ -0,0 +1,109 @@
+package com.devops.platform.config;
+
+import com.devops.platform.entity.User;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Principal, собранный из claims JWT без обращения к БД.
+ * Кладётся в SecurityContext фильтром {@link JwtAuthenticationFilter}.
+ * getUsername() возвращает email — как и {@link User}.
+ */
+public record AuthenticatedUser(Long id,
+                                String email,
+                                String realUsername,
+                                Long gitlabUserId,
+                                String gitlabUsername,
+                                List<GrantedAuthority> authorities) implements UserDetails {
+
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_USERNAME = "username";
+    private static final String CLAIM_GITLAB_USER_ID = "gitlabUserId";
+    private static final String CLAIM_GITLAB_USERNAME = "gitlabUsername";
+    private static final String CLAIM_ROLES = "roles";
+
+    /**
+     * Claims, которые кладутся в токен при логине/регистрации.
+     */
+    public static Map<String, Object> claimsOf(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_USERNAME, user.getRealUsername());
+        if (user.getGitlabUserId() != null) {
+            claims.put(CLAIM_GITLAB_USER_ID, user.getGitlabUserId());
+            claims.put(CLAIM_GITLAB_USERNAME, user.getGitlabUsername());
+        }
+        claims.put(CLAIM_ROLES, user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+        return claims;
+    }
+
+    /**
+     * Токены, выпущенные до появления claim uid, его не содержат —
+     * для них фильтр загружает пользователя из БД.
+     */
+    public static boolean hasClaims(Claims claims) {
+        return claims.get(CLAIM_USER_ID) != null;
+    }
+
+    public static AuthenticatedUser fromClaims(Claims claims) {
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        List<GrantedAuthority> authorities = roles == null
+                ? List.of(new SimpleGrantedAuthority("ROLE_USER"))
+                : roles.stream()
+                        .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                        .toList();
+
+        return new AuthenticatedUser(
+                claims.get(CLAIM_USER_ID, Long.class),
+                claims.getSubject(),
+                claims.get(CLAIM_USERNAME, String.class),
+                claims.get(CLAIM_GITLAB_USER_ID, Long.class),
+                claims.get(CLAIM_GITLAB_USERNAME, String.class),
+                authorities);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
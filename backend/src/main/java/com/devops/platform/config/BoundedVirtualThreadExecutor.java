@@ -0,0 +1,74 @@
+package com.devops.platform.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Каждая задача — в собственном виртуальном потоке (Java 21), без пула и очереди.
+ * Одновременно выполняется не больше maxConcurrency задач; сверх лимита —
+ * {@link TaskRejectedException}, как у переполненного ThreadPoolTaskExecutor,
+ * а не выполнение в вызывающем потоке.
+ * При остановке контекста ждёт завершения задач не дольше awaitTermination.
+ */
+public class BoundedVirtualThreadExecutor implements AsyncTaskExecutor, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedVirtualThreadExecutor.class);
+
+    private final VirtualThreadTaskExecutor delegate;
+    private final String threadNamePrefix;
+    private final int maxConcurrency;
+    private final Duration awaitTermination;
+    private final Semaphore permits;
+
+    public BoundedVirtualThreadExecutor(String threadNamePrefix, int maxConcurrency, Duration awaitTermination) {
+        this.delegate = new VirtualThreadTaskExecutor(threadNamePrefix);
+        this.threadNamePrefix = threadNamePrefix;
+        this.maxConcurrency = maxConcurrency;
+        this.awaitTermination = awaitTermination;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            throw new TaskRejectedException("Превышен лимит одновременных задач " + threadNamePrefix
+                    + ": " + maxConcurrency);
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Задачи сейчас в работе.
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (permits.tryAcquire(maxConcurrency, awaitTermination.toMillis(), TimeUnit.MILLISECONDS)) {
+            permits.release(maxConcurrency);
+        } else {
+            log.warn("Executor {} stopped with {} tasks still running", threadNamePrefix, getActiveCount());
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.devops.platform.config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 
@@ -23,11 +28,60 @@ public class GitLabConfig {
     @Value("${gitlab.group-id}")
     private Long gitlabGroupId;
 
+    @Value("${gitlab.pool.max-connections:50}")
+    private int poolMaxConnections;
+
+    @Value("${gitlab.pool.pending-acquire-max-count:200}")
+    private int poolPendingAcquireMaxCount;
+
+    @Value("${gitlab.pool.pending-acquire-timeout:10s}")
+    private Duration poolPendingAcquireTimeout;
+
+    @Value("${gitlab.timeouts.connect:3s}")
+    private Duration connectTimeout;
+
+    @Value("${gitlab.timeouts.read:10s}")
+    private Duration readTimeout;
+
+    /**
+     * Таймауты общие для обоих клиентов и короче, чем ждёт пользователь:
+     * зависший GitLab распознаётся как сбой, а дальше вызовы отсекает
+     * размыкатель {@link com.devops.platform.service.GitLabResilience}.
+     */
     @Bean(name = "gitlabRestTemplate")
     public RestTemplate gitlabRestTemplate(RestTemplateBuilder builder) {
         return builder
-                .setConnectTimeout(Duration.ofSeconds(10))
-                .setReadTimeout(Duration.ofSeconds(30))
+                .setConnectTimeout(connectTimeout)
+                .setReadTimeout(readTimeout)
+                .build();
+    }
+
+    /**
+     * Неблокирующий клиент GitLab на Reactor Netty с ограниченным пулом соединений:
+     * не больше max-connections одновременно, остальные запросы ждут в очереди
+     * (не длиннее pending-acquire-max-count) не дольше pending-acquire-timeout.
+     */
+    @Bean(name = "gitlabWebClient")
+    public WebClient gitlabWebClient(WebClient.Builder builder) {
+        ConnectionProvider provider = ConnectionProvider.builder("gitlab")
+                .maxConnections(poolMaxConnections)
+                .pendingAcquireMaxCount(poolPendingAcquireMaxCount)
+                .pendingAcquireTimeout(poolPendingAcquireTimeout)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+
+        String baseUrl = gitlabUrl.endsWith("/")
+                ? gitlabUrl.substring(0, gitlabUrl.length() - 1)
+                : gitlabUrl;
+
+        return builder
+                .baseUrl(baseUrl)
+                .defaultHeader("PRIVATE-TOKEN", gitlabToken)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
     }
 
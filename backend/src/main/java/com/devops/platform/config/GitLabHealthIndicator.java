@@ -0,0 +1,37 @@
+package com.devops.platform.config;
+
+import com.devops.platform.service.GitLabResilience;
+import com.devops.platform.service.GitLabResilience.Snapshot;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Компонент "gitlab" в /actuator/health: состояние размыкателя и занятые bulkhead'ы.
+ * Сам GitLab не опрашивается. Открытый размыкатель даёт UNKNOWN, а не DOWN:
+ * недоступный GitLab не повод перезапускать платформу (healthcheck в docker-compose).
+ */
+@Component("gitlabHealthIndicator")
+public class GitLabHealthIndicator implements HealthIndicator {
+
+    private final GitLabResilience resilience;
+
+    public GitLabHealthIndicator(GitLabResilience resilience) {
+        this.resilience = resilience;
+    }
+
+    @Override
+    public Health health() {
+        Snapshot snapshot = resilience.snapshot();
+        Health.Builder builder = switch (snapshot.state()) {
+            case CLOSED, HALF_OPEN -> Health.up();
+            case OPEN -> Health.unknown();
+        };
+        return builder
+                .withDetail("circuitBreaker", snapshot.state())
+                .withDetail("windowCalls", snapshot.windowCalls())
+                .withDetail("windowFailures", snapshot.windowFailures())
+                .withDetail("busyCalls", snapshot.busyCalls())
+                .build();
+    }
+}
@@ -1,6 +1,10 @@
 package com.devops.platform.config;
 
 import com.devops.platform.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,6 +21,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -26,9 +31,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
     
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    // ── auth.jwt.filter{result}: время аутентификации по токену, без остальной цепочки ──
+    private final Timer authenticatedTimer;
+    private final Timer rejectedTimer;
+    private final Timer expiredTimer;
+    private final Timer errorTimer;
+    
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService,
+                                   MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.authenticatedTimer = filterTimer(meterRegistry, "authenticated");
+        this.rejectedTimer = filterTimer(meterRegistry, "rejected");
+        this.expiredTimer = filterTimer(meterRegistry, "expired");
+        this.errorTimer = filterTimer(meterRegistry, "error");
+    }
+    
+    private static Timer filterTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("auth.jwt.filter")
+                .description("JWT parsing and principal lookup time per request")
+                .tag("result", result)
+                .register(meterRegistry);
     }
     
     @Override
@@ -40,7 +63,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
         
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -49,13 +71,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         jwt = authHeader.substring(7);
         
+        long startedAt = System.nanoTime();
+        Timer timer = rejectedTimer;
         try {
-            userEmail = jwtService.extractUsername(jwt);
+            // Один разбор токена на запрос (повторные — из кэша JwtService)
+            final Claims claims = jwtService.parseToken(jwt);
+            final String userEmail = claims.getSubject();
             
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                // Principal из claims — без запроса в БД; старые токены без uid — через БД
+                UserDetails userDetails = AuthenticatedUser.hasClaims(claims)
+                        ? AuthenticatedUser.fromClaims(claims)
+                        : this.userDetailsService.loadUserByUsername(userEmail);
                 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -65,11 +94,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                             new WebAuthenticationDetailsSource().buildDetails(request)
                     );
                     SecurityContextHolder.getContext().setAuthentication(authToken);
+                    timer = authenticatedTimer;
                 }
             }
+        } catch (ExpiredJwtException e) {
+            // Штатная ситуация: клиент обновит токен через /api/auth/refresh
+            log.debug("JWT expired at {}: {}", e.getClaims().getExpiration(), request.getRequestURI());
+            timer = expiredTimer;
         } catch (Exception e) {
             log.error("Cannot set user authentication: {}", e.getMessage());
+            timer = errorTimer;
         }
+        timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         
         filterChain.doFilter(request, response);
     }
@@ -1,12 +1,37 @@
 package com.devops.platform.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     
+    private final AsyncTaskExecutor streamExecutor;
+    
+    @Value("${pipelines.stream.timeout:30m}")
+    private Duration streamTimeout;
+    
+    public WebConfig(@Qualifier("streamExecutor") AsyncTaskExecutor streamExecutor) {
+        this.streamExecutor = streamExecutor;
+    }
+    
+    /**
+     * Асинхронные ответы (SSE-потоки пайплайнов): свой пул и таймаут,
+     * после которого клиент переподключается.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamExecutor);
+        configurer.setDefaultTimeout(streamTimeout.toMillis());
+    }
+    
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
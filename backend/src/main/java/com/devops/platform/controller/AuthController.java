@@ -2,6 +2,7 @@ package com.devops.platform.controller;
 
 import com.devops.platform.dto.request.ChangePasswordRequest;
 import com.devops.platform.dto.request.LoginRequest;
+import com.devops.platform.dto.request.RefreshTokenRequest;
 import com.devops.platform.dto.request.RegisterRequest;
 import com.devops.platform.dto.request.UpdateProfileRequest;
 import com.devops.platform.dto.response.ApiResponse;
@@ -34,6 +35,22 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Новый access-токен по refresh-токену — без пароля и BCrypt.
+     * Refresh-токен при этом ротируется: старый больше не действует.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        AuthResponse response = authService.refresh(request);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request);
+        return ResponseEntity.ok(ApiResponse.success("Сессия завершена"));
+    }
+    
     @GetMapping("/me")
     public ResponseEntity<UserResponse> getCurrentUser() {
         UserResponse user = UserResponse.fromEntity(authService.getCurrentUser());
@@ -1,12 +1,14 @@
 package com.devops.platform.controller;
 
 import com.devops.platform.dto.response.ApiResponse;
+import com.devops.platform.dto.response.PipelineHistoryResponse;
 import com.devops.platform.dto.response.PipelineResponse;
 import com.devops.platform.service.PipelineService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/api/projects/{projectId}")
@@ -25,11 +27,22 @@ public class PipelineController {
     }
     
     @GetMapping("/pipeline/history")
-    public ResponseEntity<List<PipelineResponse>> getPipelineHistory(@PathVariable Long projectId) {
-        List<PipelineResponse> history = pipelineService.getPipelineHistory(projectId);
+    public ResponseEntity<PipelineHistoryResponse> getPipelineHistory(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        PipelineHistoryResponse history = pipelineService.getPipelineHistory(projectId, cursor, size);
         return ResponseEntity.ok(history);
     }
     
+    /**
+     * Живой статус пайплайнов проекта (text/event-stream) вместо опроса /pipeline.
+     */
+    @GetMapping(value = "/pipeline/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<PipelineResponse>> streamPipelines(@PathVariable Long projectId) {
+        return pipelineService.streamPipelines(projectId);
+    }
+    
     @PostMapping("/build")
     public ResponseEntity<ApiResponse<PipelineResponse>> triggerBuild(@PathVariable Long projectId) {
         PipelineResponse pipeline = pipelineService.triggerBuild(projectId);
@@ -2,7 +2,10 @@ package com.devops.platform.controller;
 
 import com.devops.platform.dto.request.CreateProjectRequest;
 import com.devops.platform.dto.response.ApiResponse;
+import com.devops.platform.dto.response.DashboardStatsResponse;
 import com.devops.platform.dto.response.ProjectResponse;
+import com.devops.platform.dto.response.ProjectStatsResponse;
+import com.devops.platform.dto.response.ProvisioningStatusResponse;
 import com.devops.platform.service.ProjectService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
@@ -37,7 +40,13 @@ public class ProjectController {
     @PostMapping
     public ResponseEntity<ProjectResponse> createProject(@Valid @RequestBody CreateProjectRequest request) {
         ProjectResponse project = projectService.createProject(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(project);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(project);
+    }
+    
+    @GetMapping("/{id}/provisioning")
+    public ResponseEntity<ProvisioningStatusResponse> getProvisioningStatus(@PathVariable Long id) {
+        ProvisioningStatusResponse status = projectService.getProvisioningStatus(id);
+        return ResponseEntity.ok(status);
     }
     
     @DeleteMapping("/{id}")
@@ -56,11 +65,14 @@ public class ProjectController {
     }
     
     @GetMapping("/{id}/stats")
-    public ResponseEntity<Map<String, Object>> getProjectStats(@PathVariable Long id) {
-        return ResponseEntity.ok(Map.of(
-                "builds", 10,
-                "deploys", 5,
-                "lastActivity", java.time.LocalDateTime.now().toString()
-        ));
+    public ResponseEntity<ProjectStatsResponse> getProjectStats(@PathVariable Long id) {
+        ProjectStatsResponse stats = projectService.getProjectStats(id);
+        return ResponseEntity.ok(stats);
+    }
+    
+    @GetMapping("/dashboard")
+    public ResponseEntity<DashboardStatsResponse> getDashboard() {
+        DashboardStatsResponse dashboard = projectService.getDashboard();
+        return ResponseEntity.ok(dashboard);
     }
 }
\ No newline at end of file
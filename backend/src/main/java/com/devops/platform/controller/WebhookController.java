@@ -0,0 +1,34 @@
+package com.devops.platform.controller;
+
+import com.devops.platform.dto.response.ApiResponse;
+import com.devops.platform.service.GitLabWebhookService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/webhooks")
+public class WebhookController {
+    
+    private final GitLabWebhookService webhookService;
+    
+    public WebhookController(GitLabWebhookService webhookService) {
+        this.webhookService = webhookService;
+    }
+    
+    /**
+     * Pipeline Hook / Job Hook из GitLab. Обработка асинхронная — сразу 202.
+     */
+    @PostMapping("/gitlab")
+    public ResponseEntity<ApiResponse<Void>> gitlabWebhook(
+            @RequestHeader(value = "X-Gitlab-Token", required = false) String token,
+            @RequestBody JsonNode payload) {
+        webhookService.verifyToken(token);
+        if (!webhookService.accept(payload)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error("Очередь событий переполнена"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+}
@@ -10,9 +10,12 @@ import lombok.NoArgsConstructor;
 public class AuthResponse {
     
     private String token;
+    private String refreshToken;
+    /** Срок жизни token в секундах. */
+    private long expiresIn;
     private UserResponse user;
     
-    public static AuthResponse of(String token, UserResponse user) {
-        return new AuthResponse(token, user);
+    public static AuthResponse of(String token, String refreshToken, long expiresIn, UserResponse user) {
+        return new AuthResponse(token, refreshToken, expiresIn, user);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.devops.platform.dto.response;
+
+import com.devops.platform.entity.OwnerStats;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Сводка дашборда: статистика пайплайнов по всем проектам пользователя.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class DashboardStatsResponse extends ProjectStatsResponse {
+    
+    private long projects;
+    
+    public static DashboardStatsResponse fromEntity(OwnerStats stats) {
+        DashboardStatsResponse response = new DashboardStatsResponse();
+        response.setProjects(stats.getProjects());
+        fill(response, stats.getCounters());
+        return response;
+    }
+}
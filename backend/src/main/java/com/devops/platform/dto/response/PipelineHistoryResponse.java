@@ -0,0 +1,20 @@
+package com.devops.platform.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница истории пайплайнов. nextCursor передаётся в ?cursor=
+ * для следующей страницы; null — страниц больше нет.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PipelineHistoryResponse {
+    
+    private List<PipelineResponse> items;
+    private String nextCursor;
+}
@@ -1,6 +1,7 @@
 package com.devops.platform.dto.response;
 
 import com.devops.platform.entity.Pipeline;
+import com.devops.platform.repository.projection.PipelineSummary;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -33,4 +34,15 @@ public class PipelineResponse {
         response.setFinishedAt(pipeline.getFinishedAt());
         return response;
     }
+    
+    public static PipelineResponse fromSummary(PipelineSummary pipeline, List<PipelineStageResponse> stages) {
+        PipelineResponse response = new PipelineResponse();
+        response.setId(pipeline.id());
+        response.setStatus(pipeline.status().name().toLowerCase());
+        response.setStages(stages);
+        response.setDeployUrl(pipeline.deployUrl());
+        response.setStartedAt(pipeline.startedAt());
+        response.setFinishedAt(pipeline.finishedAt());
+        return response;
+    }
 }
\ No newline at end of file
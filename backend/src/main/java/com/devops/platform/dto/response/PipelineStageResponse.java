@@ -1,6 +1,7 @@
 package com.devops.platform.dto.response;
 
 import com.devops.platform.entity.PipelineStage;
+import com.devops.platform.repository.projection.PipelineStageSummary;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,4 +20,11 @@ public class PipelineStageResponse {
         response.setStatus(stage.getStatus().name().toLowerCase());
         return response;
     }
+    
+    public static PipelineStageResponse fromSummary(PipelineStageSummary stage) {
+        PipelineStageResponse response = new PipelineStageResponse();
+        response.setName(stage.name());
+        response.setStatus(stage.status().name().toLowerCase());
+        return response;
+    }
 }
\ No newline at end of file
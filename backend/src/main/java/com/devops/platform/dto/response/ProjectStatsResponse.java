@@ -0,0 +1,38 @@
+package com.devops.platform.dto.response;
+
+import com.devops.platform.entity.PipelineCounters;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectStatsResponse {
+    
+    private long builds;
+    private long deploys;
+    /** Доля успешных среди завершённых пайплайнов, %; null — завершённых ещё нет. */
+    private Double successRate;
+    private Long meanDurationMs;
+    private LocalDateTime lastActivity;
+    
+    public static ProjectStatsResponse fromCounters(PipelineCounters counters) {
+        ProjectStatsResponse response = new ProjectStatsResponse();
+        fill(response, counters);
+        return response;
+    }
+    
+    static void fill(ProjectStatsResponse response, PipelineCounters counters) {
+        response.setBuilds(counters.getBuilds());
+        response.setDeploys(counters.getDeploys());
+        long finished = counters.getFinishedPipelines();
+        if (finished > 0) {
+            response.setSuccessRate(Math.round(counters.getSuccessfulPipelines() * 1000.0 / finished) / 10.0);
+            response.setMeanDurationMs(counters.getTotalDurationMs() / finished);
+        }
+        response.setLastActivity(counters.getLastActivityAt());
+    }
+}
@@ -0,0 +1,77 @@
+package com.devops.platform.dto.response;
+
+import com.devops.platform.entity.Project;
+import com.devops.platform.entity.ProvisioningStep;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProvisioningStatusResponse {
+    
+    private Long projectId;
+    private String status;
+    private List<StepResponse> steps;
+    private Long totalDurationMs;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StepResponse {
+        private String name;
+        private String status;
+        private String error;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        private Long durationMs;
+        
+        public static StepResponse fromEntity(ProvisioningStep step) {
+            return new StepResponse(
+                    step.getStep().name().toLowerCase(),
+                    step.getStatus().name().toLowerCase(),
+                    step.getErrorMessage(),
+                    step.getStartedAt(),
+                    step.getFinishedAt(),
+                    durationMs(step.getStartedAt(), step.getFinishedAt()));
+        }
+    }
+    
+    public static ProvisioningStatusResponse fromEntity(Project project) {
+        ProvisioningStatusResponse response = new ProvisioningStatusResponse();
+        response.setProjectId(project.getId());
+        response.setStatus(project.getStatus().name().toLowerCase());
+        response.setSteps(project.getProvisioningSteps().stream()
+                .map(StepResponse::fromEntity)
+                .collect(Collectors.toList()));
+        
+        // Шаги частично идут параллельно, поэтому общее время — от первого старта до последнего финиша
+        LocalDateTime first = project.getProvisioningSteps().stream()
+                .map(ProvisioningStep::getStartedAt)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+        LocalDateTime last = project.getProvisioningSteps().stream()
+                .map(ProvisioningStep::getFinishedAt)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+        response.setTotalDurationMs(durationMs(first, last));
+        return response;
+    }
+    
+    private static Long durationMs(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            return null;
+        }
+        return Duration.between(from, to).toMillis();
+    }
+}
@@ -0,0 +1,30 @@
+package com.devops.platform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Сводка по всем проектам пользователя для дашборда. Одна строка на владельца.
+ */
+@Entity
+@Table(name = "owner_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OwnerStats {
+    
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+    
+    @Column(nullable = false)
+    private long projects;
+    
+    @Embedded
+    @Builder.Default
+    private PipelineCounters counters = new PipelineCounters();
+}
@@ -7,21 +7,31 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "pipelines")
+@Table(name = "pipelines", indexes = {
+        // Последний пайплайн и keyset-страницы истории
+        @Index(name = "idx_pipelines_project_started", columnList = "project_id, started_at DESC, id DESC"),
+        // Выборка трекера
+        @Index(name = "idx_pipelines_next_poll", columnList = "next_poll_at"),
+        // Сопоставление вебхуков
+        @Index(name = "idx_pipelines_gitlab_id", columnList = "gitlab_pipeline_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Pipeline {
     
+    /** Пул id из последовательности — IDENTITY отключал бы пакетные INSERT пайплайна и стадий. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pipelines_seq")
+    @SequenceGenerator(name = "pipelines_seq", sequenceName = "pipelines_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "gitlab_pipeline_id")
@@ -41,12 +51,30 @@ public class Pipeline {
     @Column(name = "finished_at")
     private LocalDateTime finishedAt;
     
+    /** Когда трекер в следующий раз опросит GitLab; null — пайплайн завершён. */
+    @Column(name = "next_poll_at")
+    private LocalDateTime nextPollAt;
+    
+    /** Текущий интервал опроса — растёт, пока в пайплайне ничего не меняется. */
+    @Column(name = "poll_interval_ms")
+    private Long pollIntervalMs;
+    
+    /**
+     * Трекер и вебхуки меняют пайплайн параллельно: проигравшая транзакция
+     * откатывается, а не затирает чужое состояние (и не учитывает завершение дважды).
+     */
+    @Version
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id", nullable = false)
     @ToString.Exclude
     private Project project;
     
+    /** Стадии нескольких пайплайнов сессии догружаются одним IN-запросом, а не по одному. */
     @OneToMany(mappedBy = "pipeline", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id ASC")
+    @BatchSize(size = 50)
     @Builder.Default
     private List<PipelineStage> stages = new ArrayList<>();
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.devops.platform.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Накопительные счётчики завершённых пайплайнов.
+ * Увеличиваются при завершении каждого пайплайна, а не считаются при чтении.
+ */
+@Embeddable
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PipelineCounters {
+    
+    /** Завершённые пайплайны без деплоя (build, sonar). */
+    @Column(nullable = false)
+    private long builds;
+    
+    /** Завершённые пайплайны с деплоем. */
+    @Column(nullable = false)
+    private long deploys;
+    
+    @Column(name = "successful_pipelines", nullable = false)
+    private long successfulPipelines;
+    
+    @Column(name = "finished_pipelines", nullable = false)
+    private long finishedPipelines;
+    
+    /** Сумма длительностей завершённых пайплайнов — для средней. */
+    @Column(name = "total_duration_ms", nullable = false)
+    private long totalDurationMs;
+    
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+}
@@ -9,7 +9,8 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 @Entity
-@Table(name = "pipeline_stages")
+@Table(name = "pipeline_stages",
+        indexes = @Index(name = "idx_pipeline_stages_pipeline", columnList = "pipeline_id"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,12 +18,16 @@ import lombok.ToString;
 public class PipelineStage {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pipeline_stages_seq")
+    @SequenceGenerator(name = "pipeline_stages_seq", sequenceName = "pipeline_stages_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
     private String name;
     
+    @Column(name = "gitlab_job_id")
+    private Long gitlabJobId;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     @Builder.Default
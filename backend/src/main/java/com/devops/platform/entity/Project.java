@@ -15,15 +15,21 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "projects")
+@Table(name = "projects",
+        indexes = @Index(name = "idx_projects_owner_created", columnList = "owner_id, created_at DESC"),
+        uniqueConstraints = @UniqueConstraint(name = Project.UK_OWNER_NAME, columnNames = {"owner_id", "name"}))
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Project {
     
+    /** Имя проекта уникально в пределах владельца — проверяется ограничением, а не SELECT перед INSERT. */
+    public static final String UK_OWNER_NAME = "uk_projects_owner_name";
+    
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "projects_seq")
+    @SequenceGenerator(name = "projects_seq", sequenceName = "projects_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -62,6 +68,12 @@ public class Project {
     @ToString.Exclude
     private List<Pipeline> pipelines = new ArrayList<>();
     
+    @OneToMany(mappedBy = "project", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id ASC")
+    @Builder.Default
+    @ToString.Exclude
+    private List<ProvisioningStep> provisioningSteps = new ArrayList<>();
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,31 @@
+package com.devops.platform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Статистика проекта. Одна строка на проект, ключ — id проекта;
+ * owner_id хранится здесь же, чтобы проверка доступа не требовала join.
+ */
+@Entity
+@Table(name = "project_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectStats {
+    
+    @Id
+    @Column(name = "project_id")
+    private Long projectId;
+    
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+    
+    @Embedded
+    @Builder.Default
+    private PipelineCounters counters = new PipelineCounters();
+}
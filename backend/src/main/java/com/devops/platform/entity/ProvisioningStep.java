@@ -0,0 +1,50 @@
+package com.devops.platform.entity;
+
+import com.devops.platform.entity.enums.PipelineStatus;
+import com.devops.platform.entity.enums.ProvisioningStepType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "provisioning_steps",
+        indexes = @Index(name = "idx_provisioning_steps_project", columnList = "project_id, step"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProvisioningStep {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "provisioning_steps_seq")
+    @SequenceGenerator(name = "provisioning_steps_seq", sequenceName = "provisioning_steps_seq", allocationSize = 50)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProvisioningStepType step;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private PipelineStatus status = PipelineStatus.PENDING;
+    
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+    
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+    
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "project_id", nullable = false)
+    @ToString.Exclude
+    private Project project;
+}
@@ -0,0 +1,51 @@
+package com.devops.platform.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Сессия входа: одна строка на цепочку refresh-токенов, а не на каждый выпущенный токен.
+ * Id — случайный UUID: по нему сессию ищут без секрета, перебрать его нельзя.
+ * Хранятся SHA-256 текущего секрета и предыдущего, уже ротированного: предъявленный
+ * предыдущий секрет — повторное использование, сессия отзывается целиком;
+ * любой другой несовпавший секрет просто отклоняется.
+ */
+@Entity
+@Table(name = "refresh_tokens",
+        indexes = {
+                @Index(name = "idx_refresh_tokens_user", columnList = "user_id"),
+                @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    /** SHA-256 секрета, base64url без паддинга. */
+    @Column(name = "token_hash", nullable = false, length = 43)
+    private String tokenHash;
+    
+    /** SHA-256 предыдущего секрета; null — сессия ещё не ротировалась. */
+    @Column(name = "previous_token_hash", length = 43)
+    private String previousTokenHash;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
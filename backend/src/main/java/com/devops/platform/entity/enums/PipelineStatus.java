@@ -6,5 +6,27 @@ public enum PipelineStatus {
     SUCCESS,
     FAILED,
     CANCELED,
-    SKIPPED
-}
\ No newline at end of file
+    SKIPPED;
+
+    /**
+     * Статус пайплайна/джобы GitLab → статус платформы.
+     * created, waiting_for_resource, preparing, scheduled, manual и неизвестные — PENDING.
+     */
+    public static PipelineStatus fromGitLab(String status) {
+        if (status == null) {
+            return PENDING;
+        }
+        return switch (status) {
+            case "running" -> RUNNING;
+            case "success" -> SUCCESS;
+            case "failed" -> FAILED;
+            case "canceled" -> CANCELED;
+            case "skipped" -> SKIPPED;
+            default -> PENDING;
+        };
+    }
+
+    public boolean isFinished() {
+        return this == SUCCESS || this == FAILED || this == CANCELED || this == SKIPPED;
+    }
+}
@@ -0,0 +1,7 @@
+package com.devops.platform.entity.enums;
+
+public enum ProvisioningStepType {
+    CREATE_REPOSITORY,
+    GENERATE_FILES,
+    PUSH_FILES
+}
@@ -0,0 +1,12 @@
+package com.devops.platform.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class GitLabUnavailableException extends RuntimeException {
+    
+    public GitLabUnavailableException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
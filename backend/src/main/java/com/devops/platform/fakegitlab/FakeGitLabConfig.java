@@ -0,0 +1,32 @@
+package com.devops.platform.fakegitlab;
+
+import com.devops.platform.fakegitlab.FakeGitLabServer.Settings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+/**
+ * Профиль fake-gitlab: поднимает {@link FakeGitLabServer} внутри приложения,
+ * gitlab.url указывает на него (см. application.yml).
+ * Для нагрузочных прогонов без настоящего GitLab: SPRING_PROFILES_ACTIVE=dev,fake-gitlab.
+ */
+@Configuration
+@Profile("fake-gitlab")
+public class FakeGitLabConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public FakeGitLabServer fakeGitLabServer(
+            @Value("${fake-gitlab.port:18929}") int port,
+            @Value("${fake-gitlab.latency:20ms}") Duration latency,
+            @Value("${fake-gitlab.latency-jitter:10ms}") Duration latencyJitter,
+            @Value("${fake-gitlab.error-rate:0}") double errorRate,
+            @Value("${fake-gitlab.error-status:503}") int errorStatus,
+            @Value("${fake-gitlab.stage-duration:3s}") Duration stageDuration,
+            @Value("${fake-gitlab.group-path:platform}") String groupPath) {
+        return new FakeGitLabServer(new Settings(port, latency, latencyJitter,
+                errorRate, errorStatus, stageDuration, groupPath));
+    }
+}
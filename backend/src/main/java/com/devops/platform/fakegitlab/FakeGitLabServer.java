@@ -0,0 +1,443 @@
+package com.devops.platform.fakegitlab;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Встраиваемая замена GitLab API для локальных и нагрузочных прогонов.
+ * Отвечает на те эндпоинты /api/v4, которые вызывают GitLabService и GitLabClient
+ * (пользователи, участники группы и проектов, проекты, коммиты, пайплайны, джобы,
+ * переменные группы), состояние — в памяти.
+ * Пайплайн проходит джобы build → test → deploy по {@code stageDuration} каждая
+ * и завершается success — трекеру пайплайнов есть что опрашивать.
+ * К каждому запросу добавляется задержка {@code latency} ± {@code latencyJitter},
+ * доля {@code errorRate} запросов получает {@code errorStatus}.
+ * GET отдают ETag и 304 на совпавший If-None-Match, как настоящий GitLab.
+ * Spring не нужен: поднимается из {@link FakeGitLabConfig} (профиль fake-gitlab)
+ * или отдельно через {@link #main}.
+ */
+public class FakeGitLabServer {
+
+    private static final Logger log = LoggerFactory.getLogger(FakeGitLabServer.class);
+    private static final ObjectMapper JSON = new ObjectMapper();
+    /** Джобы по PIPELINE_KIND, как их выбирают rules в templates/gitlab-ci; без переменной — push в репозиторий. */
+    private static final Map<String, List<String>> JOBS = Map.of(
+            "build", List.of("build", "test"),
+            "sonar", List.of("build", "sonar"),
+            "deploy", List.of("build", "test", "push", "deploy"),
+            "", List.of("build", "test", "deploy"));
+
+    public record Settings(int port,
+                           Duration latency,
+                           Duration latencyJitter,
+                           double errorRate,
+                           int errorStatus,
+                           Duration stageDuration,
+                           String groupPath) {
+
+        public static Settings defaults(int port) {
+            return new Settings(port, Duration.ofMillis(20), Duration.ofMillis(10),
+                    0, 503, Duration.ofSeconds(3), "platform");
+        }
+    }
+
+    private final Settings settings;
+    private final List<Route> routes = new ArrayList<>();
+
+    private final AtomicLong ids = new AtomicLong(1000);
+    private final Map<String, Map<String, Object>> usersByEmail = new ConcurrentHashMap<>();
+    private final Map<Long, String> projects = new ConcurrentHashMap<>();
+    private final Map<Long, FakePipeline> pipelines = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Object>> variables = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public FakeGitLabServer(Settings settings) {
+        this.settings = settings;
+
+        // ── Users & group ───────────────────────────────────────────
+        route("POST", "/users", this::createUser);
+        route("GET", "/users", this::searchUsers);
+        route("POST", "/groups/(\\d+)/members", (m, body, query) -> json(201, Map.of()));
+        route("GET", "/groups/(\\d+)/variables", (m, body, query) ->
+                json(200, new ArrayList<>(variables.values())));
+        route("POST", "/groups/(\\d+)/variables", this::createVariable);
+        route("PUT", "/groups/(\\d+)/variables/([^/]+)", this::updateVariable);
+        route("DELETE", "/groups/(\\d+)/variables/([^/]+)", (m, body, query) ->
+                variables.remove(m.group(2)) != null ? empty(204) : notFound());
+
+        // ── Projects ────────────────────────────────────────────────
+        route("POST", "/projects", this::createProject);
+        route("DELETE", "/projects/(\\d+)", (m, body, query) ->
+                projects.remove(Long.parseLong(m.group(1))) != null ? empty(202) : notFound());
+        route("POST", "/projects/(\\d+)/members", (m, body, query) ->
+                projectExists(m) ? json(201, Map.of()) : notFound());
+        route("POST", "/projects/(\\d+)/repository/commits", (m, body, query) ->
+                projectExists(m) ? json(201, Map.of("id", Long.toHexString(ids.incrementAndGet()))) : notFound());
+
+        // ── Pipelines ───────────────────────────────────────────────
+        route("POST", "/projects/(\\d+)/pipeline", this::createPipeline);
+        route("GET", "/projects/(\\d+)/pipelines", this::listPipelines);
+        route("GET", "/projects/(\\d+)/pipelines/(\\d+)", this::getPipeline);
+        route("GET", "/projects/(\\d+)/pipelines/(\\d+)/jobs", this::getJobs);
+    }
+
+    public synchronized void start() throws IOException {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "fake-gitlab-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(settings.port()), 512);
+        server.createContext("/api/v4/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        log.info("Fake GitLab listening on port {} (latency={} +/- {}, errorRate={}, stage={})",
+                port(), settings.latency(), settings.latencyJitter(),
+                settings.errorRate(), settings.stageDuration());
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+
+    /** Фактический порт (при port = 0 выбирается свободный). */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Отдельный запуск: {@code FakeGitLabServer [port] [latencyMs] [errorRate]}.
+     */
+    public static void main(String[] args) throws IOException {
+        Settings defaults = Settings.defaults(args.length > 0 ? Integer.parseInt(args[0]) : 18929);
+        Settings settings = new Settings(defaults.port(),
+                args.length > 1 ? Duration.ofMillis(Long.parseLong(args[1])) : defaults.latency(),
+                defaults.latencyJitter(),
+                args.length > 2 ? Double.parseDouble(args[2]) : defaults.errorRate(),
+                defaults.errorStatus(), defaults.stageDuration(), defaults.groupPath());
+        new FakeGitLabServer(settings).start();
+    }
+
+    // =========================================================================
+    //  DISPATCH
+    // =========================================================================
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(Matcher path, JsonNode body, Map<String, String> query);
+    }
+
+    private record Route(String method, Pattern path, Handler handler) {
+    }
+
+    private record Response(int status, byte[] body) {
+    }
+
+    private void route(String method, String path, Handler handler) {
+        routes.add(new Route(method, Pattern.compile(path), handler));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] requestBody = readBody(exchange.getRequestBody());
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath().substring("/api/v4".length());
+
+            injectLatency();
+            Response response;
+            if (settings.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < settings.errorRate()) {
+                response = json(settings.errorStatus(), Map.of("message", "Injected failure"));
+            } else {
+                response = dispatch(method, path, requestBody, exchange.getRequestURI().getRawQuery());
+            }
+            send(exchange, method, response);
+        } catch (RuntimeException e) {
+            log.warn("Fake GitLab failed on {} {}: {}", exchange.getRequestMethod(),
+                    exchange.getRequestURI(), e.getMessage());
+        }
+    }
+
+    private Response dispatch(String method, String path, byte[] requestBody, String rawQuery) {
+        for (Route route : routes) {
+            if (!route.method().equals(method)) {
+                continue;
+            }
+            Matcher matcher = route.path().matcher(path);
+            if (matcher.matches()) {
+                try {
+                    JsonNode body = requestBody.length > 0 ? JSON.readTree(requestBody) : JSON.nullNode();
+                    return route.handler().handle(matcher, body, parseQuery(rawQuery));
+                } catch (IOException e) {
+                    return json(400, Map.of("message", "Malformed JSON"));
+                }
+            }
+        }
+        return notFound();
+    }
+
+    private void send(HttpExchange exchange, String method, Response response) throws IOException {
+        if (method.equals("GET") && response.status() == 200) {
+            String etag = "W/\"" + Integer.toHexString(java.util.Arrays.hashCode(response.body())) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+        if (response.body().length == 0) {
+            exchange.sendResponseHeaders(response.status(), -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status(), response.body().length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response.body());
+        }
+    }
+
+    private void injectLatency() {
+        long latency = settings.latency().toMillis();
+        long jitter = settings.latencyJitter().toMillis();
+        if (jitter > 0) {
+            latency += ThreadLocalRandom.current().nextLong(-jitter, jitter + 1);
+        }
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // =========================================================================
+    //  USERS & VARIABLES
+    // =========================================================================
+
+    private Response createUser(Matcher path, JsonNode body, Map<String, String> query) {
+        String email = body.path("email").asText().toLowerCase();
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", ids.incrementAndGet());
+        user.put("username", body.path("username").asText());
+        user.put("email", email);
+        user.put("name", body.path("name").asText());
+        user.put("state", "active");
+        if (usersByEmail.putIfAbsent(email, user) != null) {
+            return json(409, Map.of("message", "Email has already been taken"));
+        }
+        return json(201, user);
+    }
+
+    private Response searchUsers(Matcher path, JsonNode body, Map<String, String> query) {
+        Map<String, Object> user = usersByEmail.get(query.getOrDefault("search", "").toLowerCase());
+        return json(200, user != null ? List.of(user) : List.of());
+    }
+
+    private Response createVariable(Matcher path, JsonNode body, Map<String, String> query) {
+        String key = body.path("key").asText();
+        Map<String, Object> variable = variable(key, body);
+        if (variables.putIfAbsent(key, variable) != null) {
+            return json(409, Map.of("message", Map.of("key", List.of(key + " has already been taken"))));
+        }
+        return json(201, variable);
+    }
+
+    private Response updateVariable(Matcher path, JsonNode body, Map<String, String> query) {
+        String key = path.group(2);
+        if (!variables.containsKey(key)) {
+            return notFound();
+        }
+        Map<String, Object> variable = variable(key, body);
+        variables.put(key, variable);
+        return json(200, variable);
+    }
+
+    private static Map<String, Object> variable(String key, JsonNode body) {
+        Map<String, Object> variable = new LinkedHashMap<>();
+        variable.put("key", key);
+        variable.put("value", body.path("value").asText());
+        variable.put("masked", body.path("masked").asBoolean());
+        variable.put("protected", body.path("protected").asBoolean());
+        variable.put("variable_type", "env_var");
+        return variable;
+    }
+
+    // =========================================================================
+    //  PROJECTS & PIPELINES
+    // =========================================================================
+
+    private Response createProject(Matcher path, JsonNode body, Map<String, String> query) {
+        String projectPath = body.path("path").asText();
+        if (projects.containsValue(projectPath)) {
+            return json(400, Map.of("message", Map.of("path", List.of("has already been taken"))));
+        }
+        long id = ids.incrementAndGet();
+        projects.put(id, projectPath);
+
+        Map<String, Object> project = new LinkedHashMap<>();
+        project.put("id", id);
+        project.put("name", body.path("name").asText());
+        project.put("path", projectPath);
+        project.put("path_with_namespace", settings.groupPath() + "/" + projectPath);
+        project.put("default_branch", "main");
+        project.put("visibility", body.path("visibility").asText("internal"));
+        return json(201, project);
+    }
+
+    private Response createPipeline(Matcher path, JsonNode body, Map<String, String> query) {
+        long projectId = Long.parseLong(path.group(1));
+        if (!projects.containsKey(projectId)) {
+            return notFound();
+        }
+        String kind = "";
+        for (JsonNode variable : body.path("variables")) {
+            if ("PIPELINE_KIND".equals(variable.path("key").asText())) {
+                kind = variable.path("value").asText();
+            }
+        }
+        FakePipeline pipeline = new FakePipeline(ids.incrementAndGet(), projectId,
+                body.path("ref").asText("main"), System.currentTimeMillis(),
+                JOBS.getOrDefault(kind, JOBS.get("")));
+        pipelines.put(pipeline.id(), pipeline);
+        Map<String, Object> response = pipelineJson(pipeline);
+        response.put("status", "pending");
+        return json(201, response);
+    }
+
+    private Response listPipelines(Matcher path, JsonNode body, Map<String, String> query) {
+        long projectId = Long.parseLong(path.group(1));
+        int perPage = Integer.parseInt(query.getOrDefault("per_page", "20"));
+        return json(200, pipelines.values().stream()
+                .filter(pipeline -> pipeline.projectId() == projectId)
+                .sorted(Comparator.comparingLong(FakePipeline::id).reversed())
+                .limit(perPage)
+                .map(this::pipelineJson)
+                .toList());
+    }
+
+    private Response getPipeline(Matcher path, JsonNode body, Map<String, String> query) {
+        FakePipeline pipeline = findPipeline(path);
+        return pipeline != null ? json(200, pipelineJson(pipeline)) : notFound();
+    }
+
+    private Response getJobs(Matcher path, JsonNode body, Map<String, String> query) {
+        FakePipeline pipeline = findPipeline(path);
+        if (pipeline == null) {
+            return notFound();
+        }
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        // GitLab отдаёт джобы от последней к первой
+        for (int i = pipeline.jobs().size() - 1; i >= 0; i--) {
+            Map<String, Object> job = new LinkedHashMap<>();
+            job.put("id", pipeline.id() * 10 + i);
+            job.put("name", pipeline.jobs().get(i));
+            job.put("stage", pipeline.jobs().get(i));
+            job.put("status", jobStatus(pipeline, i));
+            jobs.add(job);
+        }
+        return json(200, jobs);
+    }
+
+    private FakePipeline findPipeline(Matcher path) {
+        FakePipeline pipeline = pipelines.get(Long.parseLong(path.group(2)));
+        return pipeline != null && pipeline.projectId() == Long.parseLong(path.group(1)) ? pipeline : null;
+    }
+
+    private Map<String, Object> pipelineJson(FakePipeline pipeline) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", pipeline.id());
+        json.put("status", jobStatus(pipeline, pipeline.jobs().size() - 1).equals("success") ? "success" : "running");
+        json.put("ref", pipeline.ref());
+        json.put("created_at", Instant.ofEpochMilli(pipeline.createdAt()).toString());
+        return json;
+    }
+
+    private String jobStatus(FakePipeline pipeline, int index) {
+        long elapsed = System.currentTimeMillis() - pipeline.createdAt();
+        long stage = settings.stageDuration().toMillis();
+        if (elapsed < stage * index) {
+            return "pending";
+        }
+        return elapsed < stage * (index + 1) ? "running" : "success";
+    }
+
+    private boolean projectExists(Matcher path) {
+        return projects.containsKey(Long.parseLong(path.group(1)));
+    }
+
+    private record FakePipeline(long id, long projectId, String ref, long createdAt, List<String> jobs) {
+    }
+
+    // =========================================================================
+    //  HELPERS
+    // =========================================================================
+
+    private static Response json(int status, Object body) {
+        try {
+            return new Response(status, JSON.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Response empty(int status) {
+        return new Response(status, new byte[0]);
+    }
+
+    private static Response notFound() {
+        return json(404, Map.of("message", "404 Not found"));
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+}
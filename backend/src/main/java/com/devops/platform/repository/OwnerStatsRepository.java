@@ -0,0 +1,65 @@
+package com.devops.platform.repository;
+
+import com.devops.platform.entity.OwnerStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OwnerStatsRepository extends JpaRepository<OwnerStats, Long> {
+    
+    /**
+     * Пустая строка владельца. Именно INSERT: save() с заданным id делает merge
+     * и затёр бы нулями строку, которую успел вставить параллельный запрос.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO owner_stats (owner_id, projects, builds, deploys, " +
+                   "successful_pipelines, finished_pipelines, total_duration_ms) " +
+                   "VALUES (:ownerId, 0, 0, 0, 0, 0, 0)", nativeQuery = true)
+    void insertEmpty(@Param("ownerId") Long ownerId);
+    
+    @Modifying
+    @Query("UPDATE OwnerStats s SET s.projects = s.projects + :delta WHERE s.ownerId = :ownerId")
+    int addProjects(@Param("ownerId") Long ownerId, @Param("delta") long delta);
+    
+    @Modifying
+    @Query("UPDATE OwnerStats s SET " +
+           "s.counters.builds = s.counters.builds + :builds, " +
+           "s.counters.deploys = s.counters.deploys + :deploys, " +
+           "s.counters.successfulPipelines = s.counters.successfulPipelines + :successful, " +
+           "s.counters.finishedPipelines = s.counters.finishedPipelines + 1, " +
+           "s.counters.totalDurationMs = s.counters.totalDurationMs + :durationMs, " +
+           "s.counters.lastActivityAt = CASE WHEN s.counters.lastActivityAt IS NULL " +
+           "OR s.counters.lastActivityAt < :finishedAt THEN :finishedAt ELSE s.counters.lastActivityAt END " +
+           "WHERE s.ownerId = :ownerId")
+    int recordFinished(@Param("ownerId") Long ownerId,
+                       @Param("builds") long builds,
+                       @Param("deploys") long deploys,
+                       @Param("successful") long successful,
+                       @Param("durationMs") long durationMs,
+                       @Param("finishedAt") LocalDateTime finishedAt);
+    
+    /**
+     * Вычитает счётчики удалённого проекта из сводки владельца.
+     * lastActivityAt не откатывается — это время последней активности, а не проекта.
+     */
+    @Modifying
+    @Query("UPDATE OwnerStats s SET " +
+           "s.projects = s.projects - 1, " +
+           "s.counters.builds = s.counters.builds - :builds, " +
+           "s.counters.deploys = s.counters.deploys - :deploys, " +
+           "s.counters.successfulPipelines = s.counters.successfulPipelines - :successful, " +
+           "s.counters.finishedPipelines = s.counters.finishedPipelines - :finished, " +
+           "s.counters.totalDurationMs = s.counters.totalDurationMs - :durationMs " +
+           "WHERE s.ownerId = :ownerId")
+    int removeProject(@Param("ownerId") Long ownerId,
+                      @Param("builds") long builds,
+                      @Param("deploys") long deploys,
+                      @Param("successful") long successful,
+                      @Param("finished") long finished,
+                      @Param("durationMs") long durationMs);
+}
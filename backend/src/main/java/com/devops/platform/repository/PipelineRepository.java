@@ -2,11 +2,15 @@ package com.devops.platform.repository;
 
 import com.devops.platform.entity.Pipeline;
 import com.devops.platform.entity.Project;
+import com.devops.platform.repository.projection.PipelineSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,11 +19,49 @@ public interface PipelineRepository extends JpaRepository<Pipeline, Long> {
     
     List<Pipeline> findByProjectOrderByStartedAtDesc(Project project);
     
-    @Query("SELECT p FROM Pipeline p LEFT JOIN FETCH p.stages WHERE p.project = :project ORDER BY p.startedAt DESC")
-    List<Pipeline> findByProjectWithStages(@Param("project") Project project);
+    /**
+     * Первая страница истории: keyset по (startedAt, id), самые новые первыми.
+     */
+    @Query("SELECT new com.devops.platform.repository.projection.PipelineSummary(" +
+           "p.id, p.status, p.deployUrl, p.startedAt, p.finishedAt) " +
+           "FROM Pipeline p WHERE p.project.id = :projectId " +
+           "ORDER BY p.startedAt DESC, p.id DESC")
+    List<PipelineSummary> findHistory(@Param("projectId") Long projectId, Pageable pageable);
     
-    Optional<Pipeline> findTopByProjectOrderByStartedAtDesc(Project project);
+    /**
+     * Следующая страница — строго после курсора (startedAt, id); OFFSET не используется.
+     */
+    @Query("SELECT new com.devops.platform.repository.projection.PipelineSummary(" +
+           "p.id, p.status, p.deployUrl, p.startedAt, p.finishedAt) " +
+           "FROM Pipeline p WHERE p.project.id = :projectId " +
+           "AND (p.startedAt < :startedAt OR (p.startedAt = :startedAt AND p.id < :id)) " +
+           "ORDER BY p.startedAt DESC, p.id DESC")
+    List<PipelineSummary> findHistoryAfter(@Param("projectId") Long projectId,
+                                           @Param("startedAt") LocalDateTime startedAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+    
+    /**
+     * Последний пайплайн проекта вместе со стадиями — одним запросом.
+     * Без fetch join стадии догружались бы отдельным SELECT при сборке DTO.
+     */
+    @Query("SELECT p FROM Pipeline p LEFT JOIN FETCH p.stages WHERE p.id = (" +
+           "SELECT p2.id FROM Pipeline p2 WHERE p2.project.id = :projectId " +
+           "ORDER BY p2.startedAt DESC, p2.id DESC LIMIT 1)")
+    Optional<Pipeline> findLatestWithStages(@Param("projectId") Long projectId);
     
     @Query("SELECT p FROM Pipeline p LEFT JOIN FETCH p.stages WHERE p.id = :id")
     Optional<Pipeline> findByIdWithStages(@Param("id") Long id);
+    
+    /**
+     * Незавершённые пайплайны, которым пора опросить GitLab — самые "просроченные" первыми.
+     */
+    @Query("SELECT p FROM Pipeline p JOIN FETCH p.project WHERE p.nextPollAt <= :now ORDER BY p.nextPollAt ASC")
+    List<Pipeline> findDueForPolling(@Param("now") LocalDateTime now, Pageable pageable);
+    
+    @Query("SELECT DISTINCT p FROM Pipeline p LEFT JOIN FETCH p.stages WHERE p.id IN :ids")
+    List<Pipeline> findAllWithStagesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT DISTINCT p FROM Pipeline p LEFT JOIN FETCH p.stages WHERE p.gitlabPipelineId IN :gitlabIds")
+    List<Pipeline> findAllWithStagesByGitlabPipelineIdIn(@Param("gitlabIds") Collection<Long> gitlabIds);
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.devops.platform.repository;
+
+import com.devops.platform.entity.PipelineStage;
+import com.devops.platform.repository.projection.PipelineStageSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PipelineStageRepository extends JpaRepository<PipelineStage, Long> {
+    
+    /**
+     * Стадии сразу для страницы пайплайнов — один запрос вместо запроса на пайплайн.
+     */
+    @Query("SELECT new com.devops.platform.repository.projection.PipelineStageSummary(s.pipeline.id, s.name, s.status) " +
+           "FROM PipelineStage s WHERE s.pipeline.id IN :pipelineIds ORDER BY s.id ASC")
+    List<PipelineStageSummary> findSummariesByPipelineIdIn(@Param("pipelineIds") Collection<Long> pipelineIds);
+}
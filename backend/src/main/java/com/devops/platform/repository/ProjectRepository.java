@@ -2,11 +2,16 @@ package com.devops.platform.repository;
 
 import com.devops.platform.entity.Project;
 import com.devops.platform.entity.User;
+import com.devops.platform.entity.enums.ProjectStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,11 +22,36 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     
     Optional<Project> findByIdAndOwner(Long id, User owner);
     
-    boolean existsByNameAndOwner(String name, User owner);
+    /**
+     * Проект вместе с шагами создания — для опроса статуса провижининга одним запросом.
+     */
+    @EntityGraph(attributePaths = "provisioningSteps")
+    Optional<Project> findWithStepsByIdAndOwner(Long id, User owner);
     
-    @Query("SELECT COUNT(p) FROM Project p WHERE p.owner = :owner")
-    long countByOwner(@Param("owner") User owner);
+    /**
+     * Проект вместе с владельцем — для фоновых задач, которым нужны данные GitLab-пользователя.
+     */
+    @EntityGraph(attributePaths = "owner")
+    Optional<Project> findWithOwnerById(Long id);
     
-    @Query("SELECT COUNT(p) FROM Project p WHERE p.owner = :owner AND p.status = 'DEPLOYED'")
-    long countDeployedByOwner(@Param("owner") User owner);
+    /**
+     * Проекты, застрявшие в статусе (обычно CREATED) дольше порога — кандидаты на восстановление.
+     */
+    @Query("SELECT p.id FROM Project p WHERE p.status = :status AND p.updatedAt < :before " +
+           "ORDER BY p.updatedAt ASC")
+    List<Long> findStaleIds(@Param("status") ProjectStatus status,
+                            @Param("before") LocalDateTime before,
+                            Pageable pageable);
+    
+    /**
+     * Захват застрявшего проекта: сдвигает updated_at, только если проект всё ещё
+     * в том же статусе и не обновлялся с {@code before}. 0 — проект уже забрал другой узел.
+     */
+    @Modifying
+    @Query("UPDATE Project p SET p.updatedAt = :now " +
+           "WHERE p.id = :id AND p.status = :status AND p.updatedAt < :before")
+    int claimStale(@Param("id") Long id,
+                   @Param("status") ProjectStatus status,
+                   @Param("before") LocalDateTime before,
+                   @Param("now") LocalDateTime now);
 }
\ No newline at end of file
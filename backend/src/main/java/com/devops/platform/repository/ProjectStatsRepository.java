@@ -0,0 +1,37 @@
+package com.devops.platform.repository;
+
+import com.devops.platform.entity.ProjectStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ProjectStatsRepository extends JpaRepository<ProjectStats, Long> {
+    
+    Optional<ProjectStats> findByProjectIdAndOwnerId(Long projectId, Long ownerId);
+    
+    /**
+     * Атомарный инкремент в БД — параллельные завершения пайплайнов не теряют друг друга.
+     */
+    @Modifying
+    @Query("UPDATE ProjectStats s SET " +
+           "s.counters.builds = s.counters.builds + :builds, " +
+           "s.counters.deploys = s.counters.deploys + :deploys, " +
+           "s.counters.successfulPipelines = s.counters.successfulPipelines + :successful, " +
+           "s.counters.finishedPipelines = s.counters.finishedPipelines + 1, " +
+           "s.counters.totalDurationMs = s.counters.totalDurationMs + :durationMs, " +
+           "s.counters.lastActivityAt = CASE WHEN s.counters.lastActivityAt IS NULL " +
+           "OR s.counters.lastActivityAt < :finishedAt THEN :finishedAt ELSE s.counters.lastActivityAt END " +
+           "WHERE s.projectId = :projectId")
+    int recordFinished(@Param("projectId") Long projectId,
+                       @Param("builds") long builds,
+                       @Param("deploys") long deploys,
+                       @Param("successful") long successful,
+                       @Param("durationMs") long durationMs,
+                       @Param("finishedAt") LocalDateTime finishedAt);
+}
@@ -0,0 +1,17 @@
+package com.devops.platform.repository;
+
+import com.devops.platform.entity.ProvisioningStep;
+import com.devops.platform.entity.enums.ProvisioningStepType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProvisioningStepRepository extends JpaRepository<ProvisioningStep, Long> {
+    
+    List<ProvisioningStep> findByProjectIdOrderByIdAsc(Long projectId);
+    
+    Optional<ProvisioningStep> findByProjectIdAndStep(Long projectId, ProvisioningStepType step);
+}
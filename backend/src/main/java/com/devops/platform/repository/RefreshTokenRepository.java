@@ -0,0 +1,35 @@
+package com.devops.platform.repository;
+
+import com.devops.platform.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+    
+    /**
+     * Ротация одним UPDATE: проходит, только если в строке всё ещё предъявленный хеш;
+     * он становится предыдущим. 0 — токен уже ротирован (параллельный refresh).
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.previousTokenHash = t.tokenHash, t.tokenHash = :newHash, " +
+           "t.expiresAt = :expiresAt WHERE t.id = :id AND t.tokenHash = :oldHash")
+    int rotate(@Param("id") UUID id,
+               @Param("oldHash") String oldHash,
+               @Param("newHash") String newHash,
+               @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
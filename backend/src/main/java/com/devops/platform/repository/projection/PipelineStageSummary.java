@@ -0,0 +1,8 @@
+package com.devops.platform.repository.projection;
+
+import com.devops.platform.entity.enums.PipelineStatus;
+
+public record PipelineStageSummary(Long pipelineId,
+                                   String name,
+                                   PipelineStatus status) {
+}
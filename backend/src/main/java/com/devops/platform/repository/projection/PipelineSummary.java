@@ -0,0 +1,15 @@
+package com.devops.platform.repository.projection;
+
+import com.devops.platform.entity.enums.PipelineStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Колонки пайплайна, нужные для истории — без стадий и проекта.
+ */
+public record PipelineSummary(Long id,
+                              PipelineStatus status,
+                              String deployUrl,
+                              LocalDateTime startedAt,
+                              LocalDateTime finishedAt) {
+}
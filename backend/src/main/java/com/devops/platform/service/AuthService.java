@@ -1,7 +1,9 @@
 package com.devops.platform.service;
 
+import com.devops.platform.config.AuthenticatedUser;
 import com.devops.platform.dto.request.ChangePasswordRequest;
 import com.devops.platform.dto.request.LoginRequest;
+import com.devops.platform.dto.request.RefreshTokenRequest;
 import com.devops.platform.dto.request.RegisterRequest;
 import com.devops.platform.dto.request.UpdateProfileRequest;
 import com.devops.platform.dto.response.AuthResponse;
@@ -10,13 +12,20 @@ import com.devops.platform.entity.User;
 import com.devops.platform.exception.BadRequestException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class AuthService {
 
@@ -27,18 +36,27 @@ public class AuthService {
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
-    private final GitLabService gitLabService;
+    private final GitLabClient gitLabClient;
+    private final RefreshTokenService refreshTokenService;
+    private final ProjectStatsService statsService;
+    private final Duration gitlabUserTimeout;
 
     public AuthService(UserService userService,
                        JwtService jwtService,
                        PasswordEncoder passwordEncoder,
                        AuthenticationManager authenticationManager,
-                       GitLabService gitLabService) {
+                       GitLabClient gitLabClient,
+                       RefreshTokenService refreshTokenService,
+                       ProjectStatsService statsService,
+                       @Value("${gitlab.timeouts.user-create:15s}") Duration gitlabUserTimeout) {
         this.userService = userService;
         this.jwtService = jwtService;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
-        this.gitLabService = gitLabService;
+        this.gitLabClient = gitLabClient;
+        this.refreshTokenService = refreshTokenService;
+        this.statsService = statsService;
+        this.gitlabUserTimeout = gitlabUserTimeout;
     }
 
     @Transactional
@@ -53,22 +71,29 @@ public class AuthService {
             throw new BadRequestException("Имя пользователя уже занято");
         }
 
+        // ── GitLab-пользователь создаётся параллельно с хешированием пароля ──
+        // По таймауту запрос отменяется, и регистрация идёт дальше без GitLab,
+        // как при любой другой ошибке GitLab
+        long startedAt = System.nanoTime();
+        CompletableFuture<GitLabService.GitLabUserInfo> gitlabUserFuture =
+                gitLabClient.createUser(
+                        request.getEmail(),
+                        request.getUsername(),
+                        request.getPassword(),  // raw-пароль
+                        request.getUsername()    // name
+                ).timeout(gitlabUserTimeout).toFuture();
+
         // ── Создаём пользователя на платформе ──
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
                 .password(passwordEncoder.encode(request.getPassword()))
                 .build();
+        long hashedAt = System.nanoTime();
 
-        // ── Создаём пользователя в GitLab ──
+        // ── Дожидаемся пользователя в GitLab ──
         try {
-            GitLabService.GitLabUserInfo gitlabUser =
-                    gitLabService.createUser(
-                            request.getEmail(),
-                            request.getUsername(),
-                            request.getPassword(),  // raw-пароль
-                            request.getUsername()    // name
-                    );
+            GitLabService.GitLabUserInfo gitlabUser = gitlabUserFuture.join();
 
             user.setGitlabUserId(gitlabUser.getId());
             user.setGitlabUsername(gitlabUser.getUsername());
@@ -80,17 +105,23 @@ public class AuthService {
                     gitlabUser.getUsername());
 
         } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null
+                    ? e.getCause() : e;
             log.error("FAILED to create GitLab user for {}: {}",
-                    request.getEmail(), e.getMessage());
+                    request.getEmail(), cause.getMessage());
             // Продолжаем регистрацию без GitLab
             // (GitLab можно привязать позже)
         }
 
-        user = userService.save(user);
+        log.info("Registration timings for {}: passwordHash={} ms, total={} ms",
+                request.getEmail(),
+                TimeUnit.NANOSECONDS.toMillis(hashedAt - startedAt),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
 
-        String token = jwtService.generateToken(user);
+        user = userService.save(user);
+        statsService.ownerRegistered(user);
 
-        return AuthResponse.of(token, UserResponse.fromEntity(user));
+        return authResponse(user, refreshTokenService.issue(user.getId()));
     }
 
     public AuthResponse login(LoginRequest request) {
@@ -104,20 +135,67 @@ public class AuthService {
         );
 
         User user = userService.findByEmail(request.getEmail());
-        String token = jwtService.generateToken(user);
 
-        return AuthResponse.of(token, UserResponse.fromEntity(user));
+        return authResponse(user, refreshTokenService.issue(user.getId()));
+    }
+
+    /**
+     * Ротация refresh-токена и новый access-токен. Пароль не проверяется,
+     * пользователь читается по первичному ключу — claims токена должны быть свежими.
+     */
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        User user = userService.findById(rotation.userId());
+        return authResponse(user, rotation.refreshToken());
+    }
+
+    public void logout(RefreshTokenRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
     }
 
+    private AuthResponse authResponse(User user, String refreshToken) {
+        return AuthResponse.of(jwtService.generateToken(user), refreshToken,
+                jwtService.getExpirationSeconds(), UserResponse.fromEntity(user));
+    }
+
+    /**
+     * id текущего пользователя из principal в SecurityContext — без запроса в БД.
+     */
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.id();
+        }
+        if (principal instanceof User user) {
+            return user.getId();
+        }
+        return userService.findByEmail(authentication.getName()).getId();
+    }
+
+    /**
+     * Текущий пользователь для чтения (через короткоживущий кэш UserService).
+     */
     public User getCurrentUser() {
-        String email = SecurityContextHolder.getContext()
-                .getAuthentication().getName();
-        return userService.findByEmail(email);
+        Object principal = SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        if (principal instanceof User user) {
+            // Токен старого формата — пользователь уже загружен фильтром
+            return user;
+        }
+        return userService.findCachedById(getCurrentUserId());
+    }
+
+    /**
+     * Ссылка на текущего пользователя без загрузки — для запросов вида "где owner = ...".
+     */
+    public User getCurrentUserReference() {
+        return userService.getReference(getCurrentUserId());
     }
 
     @Transactional
     public UserResponse updateProfile(UpdateProfileRequest request) {
-        User user = getCurrentUser();
+        User user = userService.findById(getCurrentUserId());
 
         if (request.getUsername() != null
                 && !request.getUsername()
@@ -139,12 +217,13 @@ public class AuthService {
         }
 
         user = userService.save(user);
+        userService.evict(user.getId());
         return UserResponse.fromEntity(user);
     }
 
     @Transactional
     public void changePassword(ChangePasswordRequest request) {
-        User user = getCurrentUser();
+        User user = userService.findById(getCurrentUserId());
 
         if (!passwordEncoder.matches(
                 request.getCurrentPassword(),
@@ -155,5 +234,8 @@ public class AuthService {
         user.setPassword(
                 passwordEncoder.encode(request.getNewPassword()));
         userService.save(user);
+        userService.evict(user.getId());
+        // Остальные сессии должны войти заново с новым паролем
+        refreshTokenService.revokeAll(user.getId());
     }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.devops.platform.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Предварительно разобранный шаблон: неизменяемый список сегментов
+ * (литеральные куски + слоты плейсхолдеров {{KEY}}).
+ * Экранированная Angular-интерполяция {{ '{{' }} / {{ '}}' }} разворачивается
+ * в {{ / }} ещё на этапе разбора и склеивается с соседними литералами.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final String ANGULAR_OPEN = "{{ '{{' }}";
+    private static final String ANGULAR_CLOSE = "{{ '}}' }}";
+
+    /** Средняя длина подставляемого значения — для предварительного размера буфера. */
+    private static final int AVG_VALUE_LENGTH = 16;
+
+    private final String[] segments;
+    private final boolean[] placeholders;
+    private final int literalLength;
+    private final int placeholderCount;
+
+    private CompiledTemplate(String[] segments, boolean[] placeholders,
+                             int literalLength, int placeholderCount) {
+        this.segments = segments;
+        this.placeholders = placeholders;
+        this.literalLength = literalLength;
+        this.placeholderCount = placeholderCount;
+    }
+
+    /**
+     * Разбирает исходный текст шаблона за один проход.
+     */
+    public static CompiledTemplate compile(String source) {
+        List<String> segments = new ArrayList<>();
+        List<Boolean> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int literalLength = 0;
+        int placeholderCount = 0;
+
+        int pos = 0;
+        int length = source.length();
+        while (pos < length) {
+            int open = source.indexOf(OPEN, pos);
+            if (open < 0) {
+                literal.append(source, pos, length);
+                break;
+            }
+            literal.append(source, pos, open);
+
+            if (source.startsWith(ANGULAR_OPEN, open)) {
+                literal.append(OPEN);
+                pos = open + ANGULAR_OPEN.length();
+                continue;
+            }
+            if (source.startsWith(ANGULAR_CLOSE, open)) {
+                literal.append(CLOSE);
+                pos = open + ANGULAR_CLOSE.length();
+                continue;
+            }
+
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0 || !isPlaceholderName(source, open + OPEN.length(), close)) {
+                // Не наш плейсхолдер (например, Jinja2 {{ var }}) — оставляем как есть
+                literal.append(OPEN);
+                pos = open + OPEN.length();
+                continue;
+            }
+
+            if (literal.length() > 0) {
+                segments.add(literal.toString());
+                placeholders.add(false);
+                literalLength += literal.length();
+                literal.setLength(0);
+            }
+            segments.add(source.substring(open + OPEN.length(), close));
+            placeholders.add(true);
+            placeholderCount++;
+            pos = close + CLOSE.length();
+        }
+
+        if (literal.length() > 0) {
+            segments.add(literal.toString());
+            placeholders.add(false);
+            literalLength += literal.length();
+        }
+
+        boolean[] flags = new boolean[placeholders.size()];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = placeholders.get(i);
+        }
+        return new CompiledTemplate(segments.toArray(new String[0]), flags,
+                literalLength, placeholderCount);
+    }
+
+    /**
+     * Рендерит шаблон одной линейной записью в заранее выделенный буфер.
+     * Плейсхолдеры, для которых нет ключа в variables, выводятся без изменений.
+     */
+    public String render(Map<String, String> variables) {
+        StringBuilder out = new StringBuilder(
+                literalLength + placeholderCount * AVG_VALUE_LENGTH);
+
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (!placeholders[i]) {
+                out.append(segment);
+            } else if (variables.containsKey(segment)) {
+                String value = variables.get(segment);
+                if (value != null) {
+                    out.append(value);
+                }
+            } else {
+                out.append(OPEN).append(segment).append(CLOSE);
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean isPlaceholderName(String source, int from, int to) {
+        if (from == to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z')
+                    || (c >= 'A' && c <= 'Z')
+                    || (c >= '0' && c <= '9')
+                    || c == '_' || c == '-';
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
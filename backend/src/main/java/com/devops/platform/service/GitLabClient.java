@@ -0,0 +1,395 @@
+package com.devops.platform.service;
+
+import com.devops.platform.config.GitLabConfig;
+import com.devops.platform.service.GitLabService.GitLabJobInfo;
+import com.devops.platform.service.GitLabService.GitLabPipelineInfo;
+import com.devops.platform.service.GitLabService.GitLabProjectInfo;
+import com.devops.platform.service.GitLabService.GitLabUserInfo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неблокирующий клиент GitLab API поверх WebClient (Reactor Netty, пул соединений
+ * настраивается в {@link GitLabConfig#gitlabWebClient}).
+ * Повторяет операции {@link GitLabService}, но возвращает Mono —
+ * поток вызывающего не ждёт ответа GitLab.
+ */
+@Service
+public class GitLabClient {
+
+    private static final Logger log = LoggerFactory.getLogger(GitLabClient.class);
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+    private static final DataBufferFactory BUFFER_FACTORY = DefaultDataBufferFactory.sharedInstance;
+
+    private final WebClient webClient;
+    private final GitLabConfig gitLabConfig;
+    private final GitLabReadCache readCache;
+    private final GitLabResilience resilience;
+
+    public GitLabClient(@Qualifier("gitlabWebClient") WebClient webClient,
+                        GitLabConfig gitLabConfig,
+                        GitLabReadCache readCache,
+                        GitLabResilience resilience) {
+        this.webClient = webClient;
+        this.gitLabConfig = gitLabConfig;
+        this.readCache = readCache;
+        this.resilience = resilience;
+    }
+
+    // =========================================================================
+    //  USER OPERATIONS
+    // =========================================================================
+
+    /**
+     * Создать пользователя в GitLab и добавить в группу.
+     */
+    public Mono<GitLabUserInfo> createUser(String email, String username,
+                                           String password, String name) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("email", email);
+        body.put("password", password);
+        body.put("username", GitLabService.sanitizeUsername(username));
+        body.put("name", (name != null && !name.isBlank()) ? name : username);
+        body.put("skip_confirmation", true);
+        body.put("force_random_password", false);
+
+        return resilience.call("createUser", false, webClient.post()
+                        .uri("/api/v4/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(body)
+                        .retrieve()
+                        .bodyToMono(GitLabUserInfo.class))
+                .doOnNext(user -> log.info("GitLab user CREATED: id={}, username={}",
+                        user.getId(), user.getUsername()))
+                .onErrorResume(WebClientResponseException.Conflict.class, e -> {
+                    log.warn("GitLab user conflict (email={}), searching existing", email);
+                    return findUserByEmail(email)
+                            .switchIfEmpty(Mono.error(new RuntimeException(
+                                    "GitLab user conflict, cannot find by email: " + email)));
+                })
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    log.error("GitLab create user FAILED: {} — {}",
+                            e.getStatusCode(), e.getResponseBodyAsString());
+                    return new RuntimeException("Ошибка создания пользователя GitLab: " + e.getMessage(), e);
+                })
+                .flatMap(user -> addUserToGroup(user.getId()).thenReturn(user));
+    }
+
+    /**
+     * Добавить пользователя в группу (access_level 30 = Developer).
+     */
+    public Mono<Void> addUserToGroup(Long gitlabUserId) {
+        Long groupId = gitLabConfig.getGitlabGroupId();
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("user_id", gitlabUserId);
+        body.put("access_level", 30);
+
+        return resilience.call("addUserToGroup", false, webClient.post()
+                        .uri("/api/v4/groups/{groupId}/members", groupId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(body)
+                        .retrieve()
+                        .toBodilessEntity())
+                .doOnSuccess(r -> log.info("User {} added to group {} as Developer", gitlabUserId, groupId))
+                .then()
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    if (e.getStatusCode() == HttpStatus.CONFLICT) {
+                        log.warn("User {} already member of group {}", gitlabUserId, groupId);
+                    } else {
+                        log.error("Add user to group FAILED: {} — {}",
+                                e.getStatusCode(), e.getResponseBodyAsString());
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Найти пользователя по email (кэшируется на reference-ttl).
+     */
+    public Mono<GitLabUserInfo> findUserByEmail(String email) {
+        return readCache.read("findUserByEmail", GitLabReadCache.userKey(email),
+                        etag -> conditionalGet("findUserByEmail",
+                                webClient.get().uri(uri -> uri.path("/api/v4/users")
+                                        .queryParam("search", email).build()),
+                                etag, new ParameterizedTypeReference<List<GitLabUserInfo>>() {}),
+                        readCache::referenceTtl)
+                .flatMapIterable(users -> users)
+                .filter(u -> email.equalsIgnoreCase(u.getEmail()))
+                .next()
+                .onErrorResume(e -> {
+                    log.error("Find user by email failed: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    // =========================================================================
+    //  PROJECT OPERATIONS
+    // =========================================================================
+
+    /**
+     * Создать проект внутри группы. Пользователь получает Maintainer.
+     */
+    public Mono<GitLabProjectInfo> createProjectInGroup(String projectName,
+                                                       String ownerUsername,
+                                                       Long gitlabUserId) {
+        return createGroupProject(projectName, ownerUsername)
+                .flatMap(project -> addProjectMember(project.getId(), gitlabUserId, 40)
+                        .thenReturn(project));
+    }
+
+    /**
+     * Создать проект внутри группы без выдачи прав — права выдаются отдельно
+     * через {@link #addProjectMember}, параллельно с другими вызовами.
+     */
+    public Mono<GitLabProjectInfo> createGroupProject(String projectName,
+                                                     String ownerUsername) {
+        Long groupId = gitLabConfig.getGitlabGroupId();
+        if (groupId == null || groupId == 0) {
+            return Mono.error(new RuntimeException("GITLAB_GROUP_ID не настроен."));
+        }
+
+        String sanitizedUsername = GitLabService.sanitizeUsername(ownerUsername);
+        String sanitizedProject = GitLabService.sanitizeProjectPath(projectName);
+        String displayName = sanitizedUsername + "-" + sanitizedProject;
+        String projectPath = "proj-" + sanitizedUsername + "-" + sanitizedProject;
+
+        log.info("Creating GitLab project: name='{}', path='{}', groupId={}",
+                displayName, projectPath, groupId);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", displayName);
+        body.put("path", projectPath);
+        body.put("namespace_id", groupId);
+        body.put("visibility", "internal");
+        body.put("initialize_with_readme", false);
+
+        return resilience.call("createProject", false, webClient.post()
+                        .uri("/api/v4/projects")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(body)
+                        .retrieve()
+                        .bodyToMono(GitLabProjectInfo.class))
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    log.error("GitLab create project FAILED: {} — {}",
+                            e.getStatusCode(), e.getResponseBodyAsString());
+                    return new RuntimeException("Ошибка создания проекта GitLab: " + e.getMessage(), e);
+                })
+                .doOnNext(project -> log.info("GitLab project CREATED: id={}, path={}",
+                        project.getId(), project.getPathWithNamespace()));
+    }
+
+    /**
+     * Дать пользователю права на проект (30=Developer, 40=Maintainer).
+     */
+    public Mono<Void> addProjectMember(Long gitlabProjectId, Long gitlabUserId, int accessLevel) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("user_id", gitlabUserId);
+        body.put("access_level", accessLevel);
+
+        return resilience.call("addProjectMember", false, webClient.post()
+                        .uri("/api/v4/projects/{projectId}/members", gitlabProjectId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(body)
+                        .retrieve()
+                        .toBodilessEntity())
+                .doOnSuccess(r -> log.info("User {} added to project {} with access_level={}",
+                        gitlabUserId, gitlabProjectId, accessLevel))
+                .then()
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    if (e.getStatusCode() == HttpStatus.CONFLICT) {
+                        log.warn("User {} already member of project {}", gitlabUserId, gitlabProjectId);
+                    } else {
+                        log.error("Add project member FAILED: {}", e.getMessage());
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    // =========================================================================
+    //  COMMIT FILES
+    // =========================================================================
+
+    /**
+     * Запушить файлы одним коммитом. Тело отдаётся потоком буферов —
+     * по одному action на файл, без сборки всего JSON в памяти.
+     *
+     * @param files Map: filePath → content
+     */
+    public Mono<Void> commitFiles(Long gitlabProjectId,
+                                  Map<String, String> files,
+                                  String commitMessage) {
+        return resilience.call("commitFiles", false, webClient.post()
+                        .uri("/api/v4/projects/{projectId}/repository/commits", gitlabProjectId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(BodyInserters.fromDataBuffers(commitPayload(files, commitMessage)))
+                        .retrieve()
+                        .toBodilessEntity())
+                .doOnSuccess(r -> log.info("Committed {} files to project {}",
+                        files.size(), gitlabProjectId))
+                .then()
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    log.error("Commit FAILED: {} — {}",
+                            e.getStatusCode(), e.getResponseBodyAsString());
+                    return new RuntimeException("Ошибка push файлов: " + e.getMessage(), e);
+                });
+    }
+
+    private Flux<DataBuffer> commitPayload(Map<String, String> files, String commitMessage) {
+        Mono<DataBuffer> head = Mono.fromCallable(() -> json(json -> {
+            json.writeStartObject();
+            json.writeStringField("branch", "main");
+            json.writeStringField("commit_message", commitMessage);
+            json.writeArrayFieldStart("actions");
+        }, true));
+
+        Flux<DataBuffer> actions = Flux.fromIterable(files.entrySet())
+                .index()
+                .map(indexed -> json(json -> {
+                    if (indexed.getT1() > 0) {
+                        json.writeRaw(',');
+                    }
+                    json.writeStartObject();
+                    json.writeStringField("action", "create");
+                    json.writeStringField("file_path", indexed.getT2().getKey());
+                    json.writeStringField("content", indexed.getT2().getValue());
+                    json.writeEndObject();
+                }, false));
+
+        Mono<DataBuffer> tail = Mono.fromCallable(() -> BUFFER_FACTORY.wrap("]}".getBytes(StandardCharsets.UTF_8)));
+
+        return Flux.concat(head, actions, tail);
+    }
+
+    /**
+     * Пишет фрагмент JSON в отдельный буфер.
+     * partial = фрагмент оставляет открытые объекты/массивы (их закрывает tail),
+     * поэтому генератор только сбрасывается, без close().
+     */
+    private DataBuffer json(JsonWriter writer, boolean partial) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            JsonGenerator json = JSON_FACTORY.createGenerator(out);
+            writer.write(json);
+            json.flush();
+            if (!partial) {
+                json.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return BUFFER_FACTORY.wrap(out.toByteArray());
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+    // =========================================================================
+    //  PIPELINE OPERATIONS
+    // =========================================================================
+
+    /**
+     * @param variables переменные пайплайна (например, PIPELINE_KIND для rules в .gitlab-ci.yml)
+     */
+    public Mono<GitLabPipelineInfo> triggerPipeline(Long gitlabProjectId, String ref,
+                                                    Map<String, String> variables) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("ref", ref != null ? ref : "main");
+        body.put("variables", GitLabService.pipelineVariables(variables));
+
+        return resilience.call("triggerPipeline", false, webClient.post()
+                        .uri("/api/v4/projects/{projectId}/pipeline", gitlabProjectId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(body)
+                        .retrieve()
+                        .bodyToMono(GitLabPipelineInfo.class))
+                .doOnNext(pipeline -> log.info("Pipeline triggered: project={}, pipeline={}",
+                        gitlabProjectId, pipeline.getId()))
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    log.error("Trigger pipeline FAILED: {}", e.getMessage());
+                    return new RuntimeException("Ошибка запуска пайплайна: " + e.getMessage(), e);
+                });
+    }
+
+    public Mono<GitLabPipelineInfo> getPipeline(Long gitlabProjectId, Long pipelineId) {
+        return readCache.read("getPipeline", GitLabReadCache.pipelineKey(gitlabProjectId, pipelineId),
+                etag -> conditionalGet("getPipeline",
+                        webClient.get().uri("/api/v4/projects/{projectId}/pipelines/{pipelineId}",
+                                gitlabProjectId, pipelineId),
+                        etag, new ParameterizedTypeReference<GitLabPipelineInfo>() {}),
+                readCache::pipelineTtl);
+    }
+
+    public Mono<List<GitLabPipelineInfo>> listPipelines(Long gitlabProjectId) {
+        return readCache.read("listPipelines", GitLabReadCache.pipelinesKey(gitlabProjectId),
+                etag -> conditionalGet("listPipelines",
+                        webClient.get().uri("/api/v4/projects/{projectId}/pipelines?per_page=20&order_by=id&sort=desc",
+                                gitlabProjectId),
+                        etag, new ParameterizedTypeReference<List<GitLabPipelineInfo>>() {}),
+                readCache::listTtl);
+    }
+
+    public Mono<List<GitLabJobInfo>> getPipelineJobs(Long gitlabProjectId, Long pipelineId) {
+        return readCache.read("getPipelineJobs", GitLabReadCache.jobsKey(gitlabProjectId, pipelineId),
+                etag -> conditionalGet("getPipelineJobs",
+                        webClient.get().uri("/api/v4/projects/{projectId}/pipelines/{pipelineId}/jobs?per_page=100",
+                                gitlabProjectId, pipelineId),
+                        etag, new ParameterizedTypeReference<List<GitLabJobInfo>>() {}),
+                readCache::jobsTtl);
+    }
+
+    /**
+     * GET с If-None-Match: 304 → notModified, 2xx → тело и ETag,
+     * остальное — WebClientResponseException, как у retrieve().
+     * Идемпотентен — при временном сбое повторяется {@link GitLabResilience}.
+     */
+    private <T> Mono<GitLabReadCache.Response<T>> conditionalGet(String operation,
+                                                                 WebClient.RequestHeadersSpec<?> request,
+                                                                 String etag,
+                                                                 ParameterizedTypeReference<T> type) {
+        if (etag != null) {
+            request = request.header(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        return resilience.call(operation, true, request.exchangeToMono(response -> {
+            if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                return response.releaseBody().thenReturn(GitLabReadCache.Response.<T>notModifiedResponse());
+            }
+            if (!response.statusCode().is2xxSuccessful()) {
+                return response.createError();
+            }
+            String responseEtag = response.headers().asHttpHeaders().getETag();
+            return response.bodyToMono(type)
+                    .map(body -> GitLabReadCache.Response.of(body, responseEtag));
+        }));
+    }
+}
@@ -0,0 +1,223 @@
+package com.devops.platform.service;
+
+import com.devops.platform.entity.enums.PipelineStatus;
+import com.devops.platform.service.GitLabService.GitLabJobInfo;
+import com.devops.platform.service.GitLabService.GitLabPipelineInfo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Read-through кэш GET-запросов к GitLab, общий для {@link GitLabClient} и {@link GitLabService}.
+ * Первый уровень — значение в памяти со сроком жизни по состоянию: завершённые
+ * пайплайны и джобы не меняются и живут, пока не вытеснены (LRU), идущие — {@code running-ttl}.
+ * Второй — ревалидация устаревшей записи по ETag (If-None-Match): на 304 значение
+ * продлевается без разбора тела.
+ * Закэшированные объекты общие для потоков — только для чтения.
+ * Метрики: gitlab.read.cache.requests{method, result=hit|miss|revalidated}, gitlab.read.cache.size.
+ */
+@Component
+public class GitLabReadCache {
+
+    private static final long FOREVER = Long.MAX_VALUE;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration runningTtl;
+    private final Duration referenceTtl;
+    private final Map<String, Entry> entries;
+
+    public GitLabReadCache(MeterRegistry meterRegistry,
+                           @Value("${gitlab.read-cache.max-size:10000}") int maxSize,
+                           @Value("${gitlab.read-cache.running-ttl:1s}") Duration runningTtl,
+                           @Value("${gitlab.read-cache.reference-ttl:5m}") Duration referenceTtl) {
+        this.meterRegistry = meterRegistry;
+        this.runningTtl = runningTtl;
+        this.referenceTtl = referenceTtl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+
+        Gauge.builder("gitlab.read.cache.size", this, GitLabReadCache::size)
+                .description("Number of GitLab responses kept in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ответ GitLab на (условный) GET.
+     *
+     * @param notModified 304 — тело пустое, значение в кэше актуально
+     */
+    public record Response<T>(T body, String etag, boolean notModified) {
+
+        public static <T> Response<T> of(T body, String etag) {
+            return new Response<>(body, etag, false);
+        }
+
+        public static <T> Response<T> notModifiedResponse() {
+            return new Response<>(null, null, true);
+        }
+    }
+
+    // =========================================================================
+    //  READ-THROUGH
+    // =========================================================================
+
+    /**
+     * @param fetch GET к GitLab; аргумент — ETag устаревшей записи для If-None-Match (или null)
+     * @param ttl   срок жизни полученного значения
+     */
+    public <T> Mono<T> read(String method, String key,
+                            Function<String, Mono<Response<T>>> fetch,
+                            Function<T, Duration> ttl) {
+        return Mono.defer(() -> {
+            Entry cached = lookup(key);
+            if (cached != null && cached.isFresh()) {
+                count(method, "hit");
+                return Mono.just(value(cached));
+            }
+            return fetch.apply(cached != null ? cached.etag() : null)
+                    .mapNotNull(response -> store(method, key, cached, response, ttl));
+        });
+    }
+
+    /**
+     * То же для блокирующего клиента.
+     */
+    public <T> T readBlocking(String method, String key,
+                              Function<String, Response<T>> fetch,
+                              Function<T, Duration> ttl) {
+        Entry cached = lookup(key);
+        if (cached != null && cached.isFresh()) {
+            count(method, "hit");
+            return value(cached);
+        }
+        Response<T> response = fetch.apply(cached != null ? cached.etag() : null);
+        return response != null ? store(method, key, cached, response, ttl) : null;
+    }
+
+    public void invalidate(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    // =========================================================================
+    //  KEYS
+    // =========================================================================
+
+    public static String pipelineKey(Long gitlabProjectId, Long pipelineId) {
+        return "pipeline:" + gitlabProjectId + ":" + pipelineId;
+    }
+
+    public static String pipelinesKey(Long gitlabProjectId) {
+        return "pipelines:" + gitlabProjectId;
+    }
+
+    public static String jobsKey(Long gitlabProjectId, Long pipelineId) {
+        return "jobs:" + gitlabProjectId + ":" + pipelineId;
+    }
+
+    public static String userKey(String email) {
+        return "user:" + email.toLowerCase();
+    }
+
+    public static String groupVariablesKey(Long groupId) {
+        return "group-variables:" + groupId;
+    }
+
+    // =========================================================================
+    //  TTL POLICIES
+    // =========================================================================
+
+    public Duration pipelineTtl(GitLabPipelineInfo pipeline) {
+        return PipelineStatus.fromGitLab(pipeline.getStatus()).isFinished() ? null : runningTtl;
+    }
+
+    public Duration jobsTtl(List<GitLabJobInfo> jobs) {
+        boolean allFinished = !jobs.isEmpty() && jobs.stream()
+                .allMatch(job -> PipelineStatus.fromGitLab(job.getStatus()).isFinished());
+        return allFinished ? null : runningTtl;
+    }
+
+    /** Списки, которые растут со временем (пайплайны проекта). */
+    public Duration listTtl(Object ignored) {
+        return runningTtl;
+    }
+
+    /** Редко меняющиеся справочные данные: пользователи, переменные группы. */
+    public Duration referenceTtl(Object ignored) {
+        return referenceTtl;
+    }
+
+    // =========================================================================
+    //  INTERNALS
+    // =========================================================================
+
+    private Entry lookup(String key) {
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    /**
+     * 304 продлевает старую запись; 2xx заменяет её (ttl = null — бессрочно).
+     */
+    private <T> T store(String method, String key, Entry cached,
+                        Response<T> response, Function<T, Duration> ttl) {
+        if (response.notModified() && cached != null) {
+            count(method, "revalidated");
+            T value = value(cached);
+            put(key, new Entry(value, cached.etag(), expiresAt(ttl.apply(value))));
+            return value;
+        }
+        count(method, "miss");
+        T value = response.body();
+        if (value != null) {
+            put(key, new Entry(value, response.etag(), expiresAt(ttl.apply(value))));
+        }
+        return value;
+    }
+
+    private void put(String key, Entry entry) {
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private static long expiresAt(Duration ttl) {
+        return ttl == null ? FOREVER : System.currentTimeMillis() + ttl.toMillis();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T value(Entry entry) {
+        return (T) entry.value();
+    }
+
+    private void count(String method, String result) {
+        meterRegistry.counter("gitlab.read.cache.requests", "method", method, "result", result).increment();
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Entry(Object value, String etag, long expiresAt) {
+
+        boolean isFresh() {
+            return expiresAt > System.currentTimeMillis();
+        }
+    }
+}
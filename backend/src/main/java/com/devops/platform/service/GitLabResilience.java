@@ -0,0 +1,425 @@
+package com.devops.platform.service;
+
+import com.devops.platform.exception.GitLabUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Защита вызовов GitLab, общая для {@link GitLabClient} и {@link GitLabService}.
+ * <ul>
+ *   <li>Bulkhead на операцию: не больше {@code max-concurrent-calls} одновременных вызовов
+ *       каждой операции — медленный commitFiles не занимает слоты опроса пайплайнов.
+ *       Блокирующий вызов ждёт свободный слот не дольше {@code max-wait}, реактивный не ждёт.</li>
+ *   <li>Circuit breaker на весь GitLab по окну последних {@code window-size} вызовов:
+ *       при доле сбоев не ниже {@code failure-rate-threshold}% вызовы {@code open-duration}
+ *       отклоняются сразу, затем {@code half-open-calls} пробных вызовов решают, закрыть его или нет.</li>
+ *   <li>Идемпотентные GET повторяются до {@code max-attempts} раз с экспоненциальной паузой и jitter.</li>
+ * </ul>
+ * Сбой — только признак нездоровья GitLab: ошибка соединения, таймаут, 5xx, 429.
+ * Остальные 4xx — нормальный ответ, их разбирают вызывающие.
+ * Метрики: таймер gitlab.calls{operation, outcome, status} на каждую попытку
+ * (status — HTTP-код ошибки, ok — 2xx/304, none — ответа не было),
+ * gitlab.calls.rejected{operation, reason}, gitlab.calls.retries{operation}, gitlab.circuit.state.
+ */
+@Component
+public class GitLabResilience {
+
+    private static final Logger log = LoggerFactory.getLogger(GitLabResilience.class);
+
+    public enum CircuitState {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    public record Snapshot(CircuitState state, int windowCalls, int windowFailures,
+                           Map<String, Integer> busyCalls) {
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxConcurrentCalls;
+    private final Duration bulkheadMaxWait;
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    // ── Состояние размыкателя, под synchronized: внутри только арифметика, без логов и I/O,
+    //    чтобы виртуальный поток не закреплял поток-носитель (Java 21) ──
+    private final boolean[] window;
+    private int windowPosition;
+    private int windowCalls;
+    private int windowFailures;
+    private CircuitState state = CircuitState.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public GitLabResilience(MeterRegistry meterRegistry,
+                            @Value("${gitlab.resilience.bulkhead.max-concurrent-calls:25}") int maxConcurrentCalls,
+                            @Value("${gitlab.resilience.bulkhead.max-wait:500ms}") Duration bulkheadMaxWait,
+                            @Value("${gitlab.resilience.circuit-breaker.window-size:20}") int windowSize,
+                            @Value("${gitlab.resilience.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                            @Value("${gitlab.resilience.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                            @Value("${gitlab.resilience.circuit-breaker.open-duration:30s}") Duration openDuration,
+                            @Value("${gitlab.resilience.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+                            @Value("${gitlab.resilience.retry.max-attempts:3}") int maxAttempts,
+                            @Value("${gitlab.resilience.retry.initial-backoff:200ms}") Duration initialBackoff,
+                            @Value("${gitlab.resilience.retry.max-backoff:2s}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.bulkheadMaxWait = bulkheadMaxWait;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+
+        Gauge.builder("gitlab.circuit.state", this, r -> r.state().ordinal())
+                .description("GitLab circuit breaker state: 0 = closed, 1 = half-open, 2 = open")
+                .register(meterRegistry);
+    }
+
+    // =========================================================================
+    //  CALLS
+    // =========================================================================
+
+    /**
+     * Блокирующий вызов.
+     *
+     * @param idempotent повторять ли при временном сбое (только GET)
+     * @throws GitLabUnavailableException размыкатель открыт или bulkhead операции заполнен
+     */
+    public <T> T call(String operation, boolean idempotent, Supplier<T> call) {
+        int attempts = idempotent ? maxAttempts : 1;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt(operation, call);
+            } catch (RuntimeException e) {
+                if (attempt >= attempts || !isTransient(e)) {
+                    throw e;
+                }
+                retried(operation, attempt, e);
+                sleep(backoff(attempt));
+            }
+        }
+    }
+
+    /**
+     * То же для WebClient. {@code call} должен быть ленивым: каждая попытка — новая подписка.
+     */
+    public <T> Mono<T> call(String operation, boolean idempotent, Mono<T> call) {
+        Mono<T> guarded = Mono.defer(() -> {
+            Semaphore bulkhead = bulkhead(operation);
+            if (!bulkhead.tryAcquire()) {
+                return Mono.error(bulkheadFull(operation));
+            }
+            try {
+                acquirePermission(operation);
+            } catch (GitLabUnavailableException e) {
+                bulkhead.release();
+                return Mono.error(e);
+            }
+            Timer.Sample sample = Timer.start(meterRegistry);
+            // retryWhen отменяет уже завершившуюся попытку, когда повторы кончились, —
+            // у каждой попытки учитывается только первый исход
+            AtomicBoolean finished = new AtomicBoolean();
+            return call
+                    .doOnSuccess(value -> {
+                        if (finished.compareAndSet(false, true)) {
+                            onSuccess(operation, sample);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (finished.compareAndSet(false, true)) {
+                            onError(operation, sample, e);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (finished.compareAndSet(false, true)) {
+                            onCancel(operation, sample);
+                        }
+                    })
+                    .doFinally(signal -> bulkhead.release());
+        });
+        if (!idempotent || maxAttempts == 1) {
+            return guarded;
+        }
+        return guarded.retryWhen(Retry.backoff(maxAttempts - 1, initialBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(0.5)
+                .filter(GitLabResilience::isTransient)
+                .doBeforeRetry(signal -> retried(operation, signal.totalRetries() + 1, signal.failure()))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private <T> T attempt(String operation, Supplier<T> call) {
+        Semaphore bulkhead = bulkhead(operation);
+        if (!tryAcquire(bulkhead)) {
+            throw bulkheadFull(operation);
+        }
+        try {
+            acquirePermission(operation);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            T result;
+            try {
+                result = call.get();
+            } catch (RuntimeException e) {
+                onError(operation, sample, e);
+                throw e;
+            }
+            onSuccess(operation, sample);
+            return result;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Временный сбой GitLab: есть смысл повторить и стоит учесть в размыкателе.
+     */
+    static boolean isTransient(Throwable e) {
+        if (e instanceof ResourceAccessException || e instanceof WebClientRequestException
+                || e instanceof TimeoutException || e instanceof IOException
+                || e.getCause() instanceof IOException || e.getCause() instanceof TimeoutException) {
+            return true;
+        }
+        HttpStatusCode status = statusOf(e);
+        return status != null && (status.is5xxServerError() || status.value() == 429);
+    }
+
+    /**
+     * HTTP-статус ответа GitLab в ошибке; null — ответа не было (соединение, таймаут).
+     */
+    private static HttpStatusCode statusOf(Throwable e) {
+        if (e instanceof RestClientResponseException restError) {
+            return restError.getStatusCode();
+        }
+        if (e instanceof WebClientResponseException webError) {
+            return webError.getStatusCode();
+        }
+        return null;
+    }
+
+    // =========================================================================
+    //  BULKHEAD
+    // =========================================================================
+
+    private Semaphore bulkhead(String operation) {
+        return bulkheads.computeIfAbsent(operation, op -> new Semaphore(maxConcurrentCalls));
+    }
+
+    private boolean tryAcquire(Semaphore bulkhead) {
+        try {
+            return bulkhead.tryAcquire(bulkheadMaxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private GitLabUnavailableException bulkheadFull(String operation) {
+        rejected(operation, "bulkhead_full");
+        return new GitLabUnavailableException(
+                "Слишком много одновременных запросов к GitLab (" + operation + "), повторите позже");
+    }
+
+    // =========================================================================
+    //  CIRCUIT BREAKER
+    // =========================================================================
+
+    public synchronized CircuitState state() {
+        return state;
+    }
+
+    public Snapshot snapshot() {
+        Map<String, Integer> busy = new ConcurrentHashMap<>();
+        bulkheads.forEach((operation, bulkhead) -> {
+            int inFlight = maxConcurrentCalls - bulkhead.availablePermits();
+            if (inFlight > 0) {
+                busy.put(operation, inFlight);
+            }
+        });
+        synchronized (this) {
+            return new Snapshot(state, windowCalls, windowFailures, busy);
+        }
+    }
+
+    private void acquirePermission(String operation) {
+        Transition transition = null;
+        boolean permitted = false;
+        synchronized (this) {
+            if (state == CircuitState.OPEN
+                    && System.currentTimeMillis() - openedAt >= openDuration.toMillis()) {
+                transition = transition(CircuitState.HALF_OPEN);
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSuccesses = 0;
+            }
+            if (state == CircuitState.CLOSED) {
+                permitted = true;
+            } else if (state == CircuitState.HALF_OPEN && halfOpenPermits > 0) {
+                halfOpenPermits--;
+                permitted = true;
+            }
+        }
+        log(transition);
+        if (permitted) {
+            return;
+        }
+        rejected(operation, "circuit_open");
+        throw new GitLabUnavailableException("GitLab временно недоступен, повторите позже");
+    }
+
+    private void onSuccess(String operation, Timer.Sample sample) {
+        stop(sample, operation, "success", "ok");
+        log(record(false));
+    }
+
+    private void onError(String operation, Timer.Sample sample, Throwable e) {
+        boolean failure = isTransient(e);
+        HttpStatusCode status = statusOf(e);
+        stop(sample, operation, failure ? "failure" : "client_error",
+                status != null ? String.valueOf(status.value()) : "none");
+        log(record(failure));
+    }
+
+    /**
+     * Отменённый вызов (таймаут вызывающего) не даёт результата — пробный слот возвращается.
+     */
+    private void onCancel(String operation, Timer.Sample sample) {
+        stop(sample, operation, "cancelled", "none");
+        synchronized (this) {
+            if (state == CircuitState.HALF_OPEN) {
+                halfOpenPermits++;
+            }
+        }
+    }
+
+    private synchronized Transition record(boolean failure) {
+        switch (state) {
+            case CLOSED -> {
+                if (windowCalls == window.length) {
+                    windowFailures -= window[windowPosition] ? 1 : 0;
+                } else {
+                    windowCalls++;
+                }
+                window[windowPosition] = failure;
+                windowFailures += failure ? 1 : 0;
+                windowPosition = (windowPosition + 1) % window.length;
+
+                if (windowCalls >= minimumCalls
+                        && windowFailures * 100 >= failureRateThreshold * windowCalls) {
+                    return transition(CircuitState.OPEN);
+                }
+            }
+            case HALF_OPEN -> {
+                if (failure) {
+                    return transition(CircuitState.OPEN);
+                } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                    return transition(CircuitState.CLOSED);
+                }
+            }
+            case OPEN -> {
+                // Вызов начался до размыкания — его результат уже ничего не решает
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Вызывается под монитором; лог пишет вызывающий после выхода из него ({@link #log(Transition)}).
+     */
+    private Transition transition(CircuitState next) {
+        Transition transition = new Transition(state, next, windowFailures, windowCalls);
+        state = next;
+        if (next == CircuitState.OPEN) {
+            openedAt = System.currentTimeMillis();
+        }
+        if (next != CircuitState.HALF_OPEN) {
+            windowCalls = 0;
+            windowFailures = 0;
+            windowPosition = 0;
+        }
+        return transition;
+    }
+
+    private void log(Transition transition) {
+        if (transition != null) {
+            log.warn("GitLab circuit breaker {} -> {} (window: {} failures of {} calls)",
+                    transition.from(), transition.to(), transition.windowFailures(), transition.windowCalls());
+        }
+    }
+
+    private record Transition(CircuitState from, CircuitState to, int windowFailures, int windowCalls) {
+    }
+
+    // =========================================================================
+    //  RETRY
+    // =========================================================================
+
+    /**
+     * Экспоненциальная пауза перед повтором: половина фиксированная, половина случайная —
+     * как jitter(0.5) у Reactor, чтобы повторы от разных потоков не шли залпом.
+     */
+    private long backoff(int attempt) {
+        long exponential = initialBackoff.toMillis() << Math.min(attempt - 1, 20);
+        long cap = Math.min(maxBackoff.toMillis(), exponential);
+        return cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitLabUnavailableException("Запрос к GitLab прерван");
+        }
+    }
+
+    private void retried(String operation, long attempt, Throwable e) {
+        log.debug("GitLab {} attempt {} failed, retrying: {}", operation, attempt, e.getMessage());
+        meterRegistry.counter("gitlab.calls.retries", "operation", operation).increment();
+    }
+
+    private void stop(Timer.Sample sample, String operation, String outcome, String status) {
+        sample.stop(Timer.builder("gitlab.calls")
+                .description("GitLab API call latency, one sample per attempt")
+                .tags("operation", operation, "outcome", outcome, "status", status)
+                .register(meterRegistry));
+    }
+
+    private void rejected(String operation, String reason) {
+        meterRegistry.counter("gitlab.calls.rejected", "operation", operation, "reason", reason).increment();
+    }
+}
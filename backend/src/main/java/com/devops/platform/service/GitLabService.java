@@ -3,6 +3,9 @@ package com.devops.platform.service;
 import com.devops.platform.config.GitLabConfig;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
 import lombok.Data;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,8 +14,11 @@ import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 
 @Service
@@ -20,13 +26,23 @@ public class GitLabService {
 
     private static final Logger log = LoggerFactory.getLogger(GitLabService.class);
 
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
     private final RestTemplate restTemplate;
     private final GitLabConfig gitLabConfig;
+    private final GitLabReadCache readCache;
+    private final GitLabResilience resilience;
 
     public GitLabService(@Qualifier("gitlabRestTemplate") RestTemplate restTemplate,
-                         GitLabConfig gitLabConfig) {
+                         GitLabConfig gitLabConfig,
+                         GitLabReadCache readCache,
+                         GitLabResilience resilience) {
         this.restTemplate = restTemplate;
         this.gitLabConfig = gitLabConfig;
+        this.readCache = readCache;
+        this.resilience = resilience;
     }
 
     // =========================================================================
@@ -53,8 +69,8 @@ public class GitLabService {
         GitLabUserInfo user;
 
         try {
-            ResponseEntity<GitLabUserInfo> response =
-                    restTemplate.exchange(url, HttpMethod.POST, request, GitLabUserInfo.class);
+            ResponseEntity<GitLabUserInfo> response = resilience.call("createUser", false,
+                    () -> restTemplate.exchange(url, HttpMethod.POST, request, GitLabUserInfo.class));
             user = response.getBody();
             log.info("GitLab user CREATED: id={}, username={}", user.getId(), user.getUsername());
 
@@ -88,7 +104,8 @@ public class GitLabService {
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, authHeaders());
 
         try {
-            restTemplate.exchange(url, HttpMethod.POST, request, Map.class);
+            resilience.call("addUserToGroup", false,
+                    () -> restTemplate.exchange(url, HttpMethod.POST, request, Map.class));
             log.info("User {} added to group {} as Developer", gitlabUserId, groupId);
         } catch (HttpClientErrorException.Conflict e) {
             log.warn("User {} already member of group {}", gitlabUserId, groupId);
@@ -103,13 +120,12 @@ public class GitLabService {
      */
     public Optional<GitLabUserInfo> findUserByEmail(String email) {
         String url = apiUrl("/api/v4/users?search=" + email);
-        HttpEntity<?> request = new HttpEntity<>(authHeaders());
 
         try {
-            ResponseEntity<List<GitLabUserInfo>> response = restTemplate.exchange(
-                    url, HttpMethod.GET, request,
-                    new ParameterizedTypeReference<List<GitLabUserInfo>>() {});
-            List<GitLabUserInfo> users = response.getBody();
+            List<GitLabUserInfo> users = readCache.readBlocking("findUserByEmail",
+                    GitLabReadCache.userKey(email),
+                    etag -> conditionalGet("findUserByEmail", url, etag, new ParameterizedTypeReference<List<GitLabUserInfo>>() {}),
+                    readCache::referenceTtl);
             if (users != null) {
                 return users.stream()
                         .filter(u -> email.equalsIgnoreCase(u.getEmail()))
@@ -156,8 +172,8 @@ public class GitLabService {
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, authHeaders());
 
         try {
-            ResponseEntity<GitLabProjectInfo> response =
-                    restTemplate.exchange(url, HttpMethod.POST, request, GitLabProjectInfo.class);
+            ResponseEntity<GitLabProjectInfo> response = resilience.call("createProject", false,
+                    () -> restTemplate.exchange(url, HttpMethod.POST, request, GitLabProjectInfo.class));
             GitLabProjectInfo project = response.getBody();
             log.info("GitLab project CREATED: id={}, path={}",
                     project.getId(), project.getPathWithNamespace());
@@ -185,7 +201,8 @@ public class GitLabService {
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, authHeaders());
 
         try {
-            restTemplate.exchange(url, HttpMethod.POST, request, Map.class);
+            resilience.call("addProjectMember", false,
+                    () -> restTemplate.exchange(url, HttpMethod.POST, request, Map.class));
             log.info("User {} added to project {} with access_level={}",
                     gitlabUserId, gitlabProjectId, accessLevel);
         } catch (HttpClientErrorException.Conflict e) {
@@ -205,7 +222,8 @@ public class GitLabService {
         HttpEntity<?> request = new HttpEntity<>(authHeaders());
 
         try {
-            restTemplate.exchange(url, HttpMethod.DELETE, request, Void.class);
+            resilience.call("deleteProject", false,
+                    () -> restTemplate.exchange(url, HttpMethod.DELETE, request, Void.class));
             log.info("GitLab project DELETED: id={}", gitlabProjectId);
         } catch (HttpClientErrorException.NotFound e) {
             log.warn("GitLab project {} not found, skip delete", gitlabProjectId);
@@ -220,6 +238,8 @@ public class GitLabService {
 
     /**
      * Запушить файлы одним коммитом в репозиторий.
+     * JSON тела пишется потоково прямо в HTTP-соединение,
+     * без промежуточных Map/byte[] с содержимым файлов.
      *
      * @param files Map: filePath → content
      */
@@ -228,24 +248,18 @@ public class GitLabService {
                             String commitMessage) {
         String url = apiUrl("/api/v4/projects/" + gitlabProjectId + "/repository/commits");
 
-        List<Map<String, String>> actions = new ArrayList<>();
-        for (Map.Entry<String, String> entry : files.entrySet()) {
-            Map<String, String> action = new LinkedHashMap<>();
-            action.put("action", "create");
-            action.put("file_path", entry.getKey());
-            action.put("content", entry.getValue());
-            actions.add(action);
-        }
-
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("branch", "main");
-        body.put("commit_message", commitMessage);
-        body.put("actions", actions);
-
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, authHeaders());
+        RequestCallback requestCallback = request -> {
+            request.getHeaders().putAll(authHeaders());
+            if (request instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(out -> writeCommitPayload(out, files, commitMessage));
+            } else {
+                writeCommitPayload(request.getBody(), files, commitMessage);
+            }
+        };
 
         try {
-            restTemplate.exchange(url, HttpMethod.POST, request, Map.class);
+            resilience.call("commitFiles", false,
+                    () -> restTemplate.execute(url, HttpMethod.POST, requestCallback, null));
             log.info("Committed {} files to project {}", files.size(), gitlabProjectId);
         } catch (HttpClientErrorException e) {
             log.error("Commit FAILED: {} — {}",
@@ -254,21 +268,48 @@ public class GitLabService {
         }
     }
 
+    private void writeCommitPayload(OutputStream out,
+                                    Map<String, String> files,
+                                    String commitMessage) throws IOException {
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("branch", "main");
+            json.writeStringField("commit_message", commitMessage);
+            json.writeArrayFieldStart("actions");
+            for (Map.Entry<String, String> entry : files.entrySet()) {
+                json.writeStartObject();
+                json.writeStringField("action", "create");
+                json.writeStringField("file_path", entry.getKey());
+                json.writeStringField("content", entry.getValue());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
     // =========================================================================
     //  PIPELINE OPERATIONS
     // =========================================================================
 
-    public GitLabPipelineInfo triggerPipeline(Long gitlabProjectId, String ref) {
+    /**
+     * Запустить пайплайн.
+     *
+     * @param variables переменные пайплайна (например, PIPELINE_KIND для rules в .gitlab-ci.yml)
+     */
+    public GitLabPipelineInfo triggerPipeline(Long gitlabProjectId, String ref,
+                                              Map<String, String> variables) {
         String url = apiUrl("/api/v4/projects/" + gitlabProjectId + "/pipeline");
 
         Map<String, Object> body = new LinkedHashMap<>();
         body.put("ref", ref != null ? ref : "main");
+        body.put("variables", pipelineVariables(variables));
 
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, authHeaders());
 
         try {
-            ResponseEntity<GitLabPipelineInfo> response =
-                    restTemplate.exchange(url, HttpMethod.POST, request, GitLabPipelineInfo.class);
+            ResponseEntity<GitLabPipelineInfo> response = resilience.call("triggerPipeline", false,
+                    () -> restTemplate.exchange(url, HttpMethod.POST, request, GitLabPipelineInfo.class));
             GitLabPipelineInfo pipeline = response.getBody();
             log.info("Pipeline triggered: project={}, pipeline={}", gitlabProjectId, pipeline.getId());
             return pipeline;
@@ -281,30 +322,28 @@ public class GitLabService {
     public GitLabPipelineInfo getPipelineStatus(Long gitlabProjectId, Long pipelineId) {
         String url = apiUrl("/api/v4/projects/" + gitlabProjectId
                 + "/pipelines/" + pipelineId);
-        HttpEntity<?> request = new HttpEntity<>(authHeaders());
-        ResponseEntity<GitLabPipelineInfo> response =
-                restTemplate.exchange(url, HttpMethod.GET, request, GitLabPipelineInfo.class);
-        return response.getBody();
+        return readCache.readBlocking("getPipeline",
+                GitLabReadCache.pipelineKey(gitlabProjectId, pipelineId),
+                etag -> conditionalGet("getPipeline", url, etag, new ParameterizedTypeReference<GitLabPipelineInfo>() {}),
+                readCache::pipelineTtl);
     }
 
     public List<GitLabPipelineInfo> listPipelines(Long gitlabProjectId) {
         String url = apiUrl("/api/v4/projects/" + gitlabProjectId
                 + "/pipelines?per_page=20&order_by=id&sort=desc");
-        HttpEntity<?> request = new HttpEntity<>(authHeaders());
-        ResponseEntity<List<GitLabPipelineInfo>> response =
-                restTemplate.exchange(url, HttpMethod.GET, request,
-                        new ParameterizedTypeReference<List<GitLabPipelineInfo>>() {});
-        return response.getBody();
+        return readCache.readBlocking("listPipelines",
+                GitLabReadCache.pipelinesKey(gitlabProjectId),
+                etag -> conditionalGet("listPipelines", url, etag, new ParameterizedTypeReference<List<GitLabPipelineInfo>>() {}),
+                readCache::listTtl);
     }
 
     public List<GitLabJobInfo> getPipelineJobs(Long gitlabProjectId, Long pipelineId) {
         String url = apiUrl("/api/v4/projects/" + gitlabProjectId
-                + "/pipelines/" + pipelineId + "/jobs");
-        HttpEntity<?> request = new HttpEntity<>(authHeaders());
-        ResponseEntity<List<GitLabJobInfo>> response =
-                restTemplate.exchange(url, HttpMethod.GET, request,
-                        new ParameterizedTypeReference<List<GitLabJobInfo>>() {});
-        return response.getBody();
+                + "/pipelines/" + pipelineId + "/jobs?per_page=100");
+        return readCache.readBlocking("getPipelineJobs",
+                GitLabReadCache.jobsKey(gitlabProjectId, pipelineId),
+                etag -> conditionalGet("getPipelineJobs", url, etag, new ParameterizedTypeReference<List<GitLabJobInfo>>() {}),
+                readCache::jobsTtl);
     }
 
     // =========================================================================
@@ -326,8 +365,10 @@ public class GitLabService {
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, authHeaders());
 
         try {
-            restTemplate.exchange(url, HttpMethod.POST, request, Map.class);
+            resilience.call("addGroupVariable", false,
+                    () -> restTemplate.exchange(url, HttpMethod.POST, request, Map.class));
             log.info("Group variable '{}' added to group {}", key, groupId);
+            readCache.invalidate(GitLabReadCache.groupVariablesKey(groupId));
         } catch (HttpClientErrorException.Conflict e) {
             log.warn("Group variable '{}' already exists, updating", key);
             updateGroupVariable(key, value, masked, isProtected);
@@ -349,8 +390,10 @@ public class GitLabService {
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(body, authHeaders());
 
         try {
-            restTemplate.exchange(url, HttpMethod.PUT, request, Map.class);
+            resilience.call("updateGroupVariable", false,
+                    () -> restTemplate.exchange(url, HttpMethod.PUT, request, Map.class));
             log.info("Group variable '{}' updated in group {}", key, groupId);
+            readCache.invalidate(GitLabReadCache.groupVariablesKey(groupId));
         } catch (HttpClientErrorException e) {
             log.error("Update group variable FAILED: {}", e.getMessage());
         }
@@ -359,13 +402,12 @@ public class GitLabService {
     public List<Map<String, Object>> getGroupVariables() {
         Long groupId = gitLabConfig.getGitlabGroupId();
         String url = apiUrl("/api/v4/groups/" + groupId + "/variables");
-        HttpEntity<?> request = new HttpEntity<>(authHeaders());
 
         try {
-            ResponseEntity<List<Map<String, Object>>> response =
-                    restTemplate.exchange(url, HttpMethod.GET, request,
-                            new ParameterizedTypeReference<List<Map<String, Object>>>() {});
-            return response.getBody();
+            return readCache.readBlocking("getGroupVariables",
+                    GitLabReadCache.groupVariablesKey(groupId),
+                    etag -> conditionalGet("getGroupVariables", url, etag, new ParameterizedTypeReference<List<Map<String, Object>>>() {}),
+                    readCache::referenceTtl);
         } catch (HttpClientErrorException e) {
             log.error("Get group variables FAILED: {}", e.getMessage());
             return Collections.emptyList();
@@ -378,8 +420,10 @@ public class GitLabService {
         HttpEntity<?> request = new HttpEntity<>(authHeaders());
 
         try {
-            restTemplate.exchange(url, HttpMethod.DELETE, request, Void.class);
+            resilience.call("deleteGroupVariable", false,
+                    () -> restTemplate.exchange(url, HttpMethod.DELETE, request, Void.class));
             log.info("Group variable '{}' deleted from group {}", key, groupId);
+            readCache.invalidate(GitLabReadCache.groupVariablesKey(groupId));
         } catch (HttpClientErrorException e) {
             log.error("Delete group variable FAILED: {}", e.getMessage());
         }
@@ -411,6 +455,24 @@ public class GitLabService {
         return base + path;
     }
 
+    /**
+     * GET с If-None-Match для {@link GitLabReadCache}: 304 → notModified, иначе тело и ETag.
+     * Идемпотентен — при временном сбое повторяется {@link GitLabResilience}.
+     */
+    private <T> GitLabReadCache.Response<T> conditionalGet(String operation, String url, String etag,
+                                                           ParameterizedTypeReference<T> type) {
+        HttpHeaders headers = authHeaders();
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        ResponseEntity<T> response = resilience.call(operation, true,
+                () -> restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), type));
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            return GitLabReadCache.Response.notModifiedResponse();
+        }
+        return GitLabReadCache.Response.of(response.getBody(), response.getHeaders().getETag());
+    }
+
     private HttpHeaders authHeaders() {
         HttpHeaders h = new HttpHeaders();
         h.setContentType(MediaType.APPLICATION_JSON);
@@ -418,13 +480,22 @@ public class GitLabService {
         return h;
     }
 
-    private String sanitizeUsername(String username) {
+    /**
+     * Переменные в формате POST /projects/:id/pipeline: [{key, value}, ...].
+     */
+    static List<Map<String, String>> pipelineVariables(Map<String, String> variables) {
+        return variables.entrySet().stream()
+                .map(variable -> Map.of("key", variable.getKey(), "value", variable.getValue()))
+                .toList();
+    }
+
+    static String sanitizeUsername(String username) {
         String s = username.replaceAll("[^a-zA-Z0-9_.-]", "_").toLowerCase();
         if (s.isEmpty() || !Character.isLetterOrDigit(s.charAt(0))) s = "u" + s;
         return s;
     }
 
-    private String sanitizeProjectPath(String name) {
+    static String sanitizeProjectPath(String name) {
         return name.toLowerCase()
                 .replaceAll("[^a-z0-9-]", "-")
                 .replaceAll("-+", "-")
@@ -0,0 +1,243 @@
+package com.devops.platform.service;
+
+import com.devops.platform.entity.Pipeline;
+import com.devops.platform.entity.enums.PipelineStatus;
+import com.devops.platform.exception.UnauthorizedException;
+import com.devops.platform.repository.PipelineRepository;
+import com.devops.platform.service.GitLabService.GitLabJobInfo;
+import com.devops.platform.service.PipelineEventBus.PipelineUpdate;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Приём вебхуков GitLab (Pipeline Hook, Job Hook).
+ * HTTP-поток только проверяет токен, разбирает JSON и кладёт событие
+ * в ограниченную очередь. Раз в {@code flush-ms} очередь вычерпывается пачкой:
+ * события схлопываются по gitlabPipelineId/jobId (важно только последнее состояние),
+ * пачка применяется одной транзакцией — один SELECT и пакет UPDATE/INSERT.
+ * Если трекер одновременно обновил какой-то из пайплайнов, пачка применяется
+ * заново по одному пайплайну — конфликт стоит только этому пайплайну.
+ * Повторная доставка того же события ничего не меняет.
+ * Опрос {@link PipelineTracker} для таких пайплайнов откладывается и служит сверкой.
+ */
+@Service
+public class GitLabWebhookService {
+
+    private static final Logger log = LoggerFactory.getLogger(GitLabWebhookService.class);
+
+    private final PipelineRepository pipelineRepository;
+    private final PipelineTracker pipelineTracker;
+    private final TransactionTemplate transactionTemplate;
+    private final PipelineEventBus eventBus;
+
+    private final byte[] secretToken;
+    private final int maxBatchSize;
+    private final BlockingQueue<WebhookEvent> queue;
+
+    public GitLabWebhookService(PipelineRepository pipelineRepository,
+                                PipelineTracker pipelineTracker,
+                                TransactionTemplate transactionTemplate,
+                                PipelineEventBus eventBus,
+                                @Value("${gitlab.webhook.secret:}") String secretToken,
+                                @Value("${gitlab.webhook.queue-capacity:10000}") int queueCapacity,
+                                @Value("${gitlab.webhook.max-batch-size:500}") int maxBatchSize) {
+        this.pipelineRepository = pipelineRepository;
+        this.pipelineTracker = pipelineTracker;
+        this.transactionTemplate = transactionTemplate;
+        this.eventBus = eventBus;
+        this.secretToken = secretToken.getBytes(StandardCharsets.UTF_8);
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Проверка X-Gitlab-Token за постоянное время.
+     * Пока секрет не задан (gitlab.webhook.secret), вебхуки не принимаются.
+     */
+    public void verifyToken(String token) {
+        if (secretToken.length == 0 || token == null
+                || !MessageDigest.isEqual(secretToken, token.getBytes(StandardCharsets.UTF_8))) {
+            throw new UnauthorizedException("Неверный токен вебхука");
+        }
+    }
+
+    /**
+     * Разбирает payload и ставит событие в очередь.
+     *
+     * @return false, если очередь переполнена — состояние догонит опрос
+     */
+    public boolean accept(JsonNode payload) {
+        WebhookEvent event = parse(payload);
+        if (event == null) {
+            return true;
+        }
+        boolean queued = queue.offer(event);
+        if (!queued) {
+            log.warn("Webhook queue is full, dropping event for GitLab pipeline {}",
+                    event.gitlabPipelineId());
+        }
+        return queued;
+    }
+
+    // =========================================================================
+    //  PARSING
+    // =========================================================================
+
+    private WebhookEvent parse(JsonNode payload) {
+        String kind = payload.path("object_kind").asText();
+        switch (kind) {
+            case "pipeline" -> {
+                JsonNode attributes = payload.path("object_attributes");
+                if (!attributes.hasNonNull("id")) {
+                    return null;
+                }
+                List<GitLabJobInfo> jobs = new ArrayList<>();
+                for (JsonNode build : payload.path("builds")) {
+                    jobs.add(job(build.path("id"), build.path("name"),
+                            build.path("stage"), build.path("status")));
+                }
+                return new WebhookEvent(attributes.path("id").asLong(),
+                        attributes.path("status").asText(null), jobs, true);
+            }
+            case "build" -> {
+                if (!payload.hasNonNull("pipeline_id") || !payload.hasNonNull("build_id")) {
+                    return null;
+                }
+                return new WebhookEvent(payload.path("pipeline_id").asLong(), null,
+                        List.of(job(payload.path("build_id"), payload.path("build_name"),
+                                payload.path("build_stage"), payload.path("build_status"))),
+                        false);
+            }
+            default -> {
+                log.debug("Ignoring GitLab webhook of kind '{}'", kind);
+                return null;
+            }
+        }
+    }
+
+    private static GitLabJobInfo job(JsonNode id, JsonNode name, JsonNode stage, JsonNode status) {
+        GitLabJobInfo job = new GitLabJobInfo();
+        job.setId(id.asLong());
+        job.setName(name.asText());
+        job.setStage(stage.asText());
+        job.setStatus(status.asText());
+        return job;
+    }
+
+    // =========================================================================
+    //  BATCHED APPLY
+    // =========================================================================
+
+    @Scheduled(fixedDelayString = "${gitlab.webhook.flush-ms:250}")
+    public void flush() {
+        List<WebhookEvent> batch = new ArrayList<>(Math.min(queue.size(), maxBatchSize));
+        while (queue.drainTo(batch, maxBatchSize) > 0) {
+            Map<Long, PendingUpdate> updates = collapse(batch);
+            try {
+                apply(updates);
+            } catch (OptimisticLockingFailureException e) {
+                // Трекер одновременно обновил часть пайплайнов — пачка откатана целиком
+                log.debug("Webhook batch of {} pipelines conflicted with the tracker, applying one by one",
+                        updates.size());
+                applyEach(updates);
+            } catch (RuntimeException e) {
+                // Пачка потеряна, но не навсегда: следующий опрос трекера сверит состояние
+                log.error("Failed to apply {} webhook events: {}", batch.size(), e.getMessage(), e);
+            }
+            log.debug("Webhook batch: {} events, {} pipelines", batch.size(), updates.size());
+            batch.clear();
+        }
+    }
+
+    /**
+     * Каждый пайплайн — своей транзакцией со свежей версией из БД.
+     * Повторный конфликт оставляет пайплайн опросу трекера.
+     */
+    private void applyEach(Map<Long, PendingUpdate> updates) {
+        updates.forEach((gitlabPipelineId, update) -> {
+            try {
+                apply(Map.of(gitlabPipelineId, update));
+            } catch (OptimisticLockingFailureException e) {
+                log.warn("Webhook update for GitLab pipeline {} conflicted with the tracker, left to polling: {}",
+                        gitlabPipelineId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Схлопывает события: по пайплайну — последний статус, по джобе — последнее состояние.
+     */
+    private static Map<Long, PendingUpdate> collapse(List<WebhookEvent> events) {
+        Map<Long, PendingUpdate> updates = new LinkedHashMap<>();
+        for (WebhookEvent event : events) {
+            PendingUpdate update = updates.computeIfAbsent(event.gitlabPipelineId(),
+                    id -> new PendingUpdate());
+            if (event.status() != null) {
+                update.status = event.status();
+            }
+            update.complete |= event.completeJobs();
+            for (GitLabJobInfo job : event.jobs()) {
+                update.jobs.merge(job.getId(), job, GitLabWebhookService::later);
+            }
+        }
+        return updates;
+    }
+
+    private void apply(Map<Long, PendingUpdate> updates) {
+        List<PipelineUpdate> published = transactionTemplate.execute(tx -> {
+            List<PipelineUpdate> changedPipelines = new ArrayList<>();
+            for (Pipeline pipeline : pipelineRepository.findAllWithStagesByGitlabPipelineIdIn(updates.keySet())) {
+                PendingUpdate update = updates.get(pipeline.getGitlabPipelineId());
+                boolean changed = false;
+                if (update.status != null) {
+                    changed = pipelineTracker.applyStatus(pipeline, PipelineStatus.fromGitLab(update.status), true);
+                }
+                if (!update.jobs.isEmpty()) {
+                    changed |= pipelineTracker.applyJobs(pipeline,
+                            new ArrayList<>(update.jobs.values()), update.complete, true);
+                }
+                if (changed) {
+                    pipelineTracker.afterExternalUpdate(pipeline);
+                    pipelineTracker.collectUpdate(pipeline, changedPipelines);
+                }
+            }
+            return changedPipelines;
+        });
+        published.forEach(eventBus::publish);
+    }
+
+    /**
+     * Из двух событий одной джобы оставляет последнее, но завершённое
+     * состояние не уступает незавершённому (события могут прийти не по порядку).
+     */
+    private static GitLabJobInfo later(GitLabJobInfo previous, GitLabJobInfo next) {
+        boolean previousFinished = PipelineStatus.fromGitLab(previous.getStatus()).isFinished();
+        boolean nextFinished = PipelineStatus.fromGitLab(next.getStatus()).isFinished();
+        return previousFinished && !nextFinished ? previous : next;
+    }
+
+    private static final class PendingUpdate {
+        private String status;
+        private boolean complete;
+        private final Map<Long, GitLabJobInfo> jobs = new LinkedHashMap<>();
+    }
+
+    private record WebhookEvent(Long gitlabPipelineId, String status,
+                                List<GitLabJobInfo> jobs, boolean completeJobs) {
+    }
+}
@@ -1,37 +1,122 @@
 package com.devops.platform.service;
 
+import com.devops.platform.config.AuthenticatedUser;
+import com.devops.platform.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
     
-    @Value("${jwt.secret:mySecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLong123456}")
-    private String secretKey;
+    private final long jwtExpiration;
+    private final SecretKey signInKey;
+    private final JwtParser parser;
     
-    @Value("${jwt.expiration:86400000}")
-    private long jwtExpiration;
+    /**
+     * Уже проверенные токены: SHA-256 токена → claims.
+     * Запись живёт не дольше exp самого токена, размер ограничен (LRU).
+     */
+    private final Map<String, VerifiedToken> verifiedTokens;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    
+    public JwtService(
+            @Value("${jwt.secret:mySecretKeyForJWTTokenGenerationThatIsAtLeast256BitsLong123456}") String secretKey,
+            @Value("${jwt.expiration:900000}") long jwtExpiration,
+            @Value("${jwt.claims-cache-size:10000}") int claimsCacheSize,
+            MeterRegistry meterRegistry) {
+        this.jwtExpiration = jwtExpiration;
+        // Ключ и парсер неизменяемы и потокобезопасны — строим один раз
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
+        this.verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > claimsCacheSize;
+            }
+        };
+        
+        Gauge.builder("jwt.claims.cache.size", this, JwtService::cacheSize)
+                .description("Number of verified tokens kept in memory")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.claims.cache.requests", cacheHits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("jwt.claims.cache.requests", cacheMisses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Проверяет подпись и срок действия токена и возвращает его claims.
+     * Повторные запросы с тем же токеном обслуживаются из кэша без HMAC и разбора JSON.
+     * Невалидный или просроченный токен — исключение из jjwt.
+     */
+    public Claims parseToken(String token) {
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+        
+        synchronized (verifiedTokens) {
+            VerifiedToken cached = verifiedTokens.get(key);
+            if (cached != null) {
+                if (cached.expiresAt() > now) {
+                    cacheHits.incrementAndGet();
+                    return cached.claims();
+                }
+                verifiedTokens.remove(key);
+            }
+        }
+        
+        cacheMisses.incrementAndGet();
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            synchronized (verifiedTokens) {
+                verifiedTokens.put(key, new VerifiedToken(claims, expiration.getTime()));
+            }
+        }
+        return claims;
+    }
     
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
     
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseToken(token);
         return claimsResolver.apply(claims);
     }
     
+    /**
+     * Токен с данными пользователя в claims — достаточно для аутентификации без БД.
+     */
+    public String generateToken(User user) {
+        return generateToken(AuthenticatedUser.claimsOf(user), user);
+    }
+    
     public String generateToken(UserDetails userDetails) {
         return generateToken(new HashMap<>(), userDetails);
     }
@@ -50,33 +135,42 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
     
+    public long getExpirationSeconds() {
+        return jwtExpiration / 1000;
+    }
+    
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(parseToken(token), userDetails);
     }
     
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Проверка уже разобранных claims — без повторного разбора токена.
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getSubject())
+                && claims.getExpiration().after(new Date());
     }
     
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private int cacheSize() {
+        synchronized (verifiedTokens) {
+            return verifiedTokens.size();
+        }
     }
     
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
     
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private record VerifiedToken(Claims claims, long expiresAt) {
     }
-}
\ No newline at end of file
+}
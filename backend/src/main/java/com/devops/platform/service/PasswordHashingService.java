@@ -0,0 +1,152 @@
+package com.devops.platform.service;
+
+import com.devops.platform.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt на отдельном ограниченном пуле — {@link PasswordEncoder} платформы
+ * (регистрация, вход через DaoAuthenticationProvider, смена пароля).
+ * Хеширование занимает ядро целиком, поэтому потоков по умолчанию половина ядер:
+ * волна логинов после деплоя упирается в очередь пула, а не отнимает CPU
+ * у остальных эндпоинтов. Переполненная очередь или долгое ожидание — 429.
+ * Стоимость задаётся auth.password.bcrypt-cost; хеши с другой стоимостью
+ * {@link #upgradeEncoding} помечает к перехешированию при следующем входе
+ * (UserService.updatePassword). Подбор стоимости под бюджет — PasswordHashingBenchmark.
+ * Метрики: executor.*{name=password-hashing} (очередь, ожидание, выполнение),
+ * auth.password.hashing{operation}, auth.password.hashing.rejected{operation, reason}.
+ */
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final MeterRegistry meterRegistry;
+    private final BCryptPasswordEncoder bcrypt;
+    private final int cost;
+    private final Duration timeout;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public PasswordHashingService(MeterRegistry meterRegistry,
+                                  @Value("${auth.password.bcrypt-cost:10}") int cost,
+                                  @Value("${auth.password.hashing.threads:0}") int threads,
+                                  @Value("${auth.password.hashing.queue-capacity:200}") int queueCapacity,
+                                  @Value("${auth.password.hashing.timeout:5s}") Duration timeout) {
+        this.meterRegistry = meterRegistry;
+        this.bcrypt = new BCryptPasswordEncoder(cost);
+        this.cost = cost;
+        this.timeout = timeout;
+
+        // 0 — половина ядер, но не меньше одного потока
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), task -> {
+                    Thread thread = new Thread(task, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password-hashing");
+
+        this.encodeTimer = hashingTimer("encode");
+        this.matchesTimer = hashingTimer("matches");
+        log.info("Password hashing: BCrypt cost {}, {} threads, queue {}", cost, poolSize, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit("encode", () -> encodeTimer.recordCallable(() -> bcrypt.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit("matches", () -> matchesTimer.recordCallable(() -> bcrypt.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * true для хешей с другой стоимостью — и ниже, и выше текущей:
+     * снижение стоимости тоже должно доходить до существующих пользователей.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != cost;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // =========================================================================
+    //  INTERNALS
+    // =========================================================================
+
+    private <T> T submit(String operation, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw rejected(operation, "queue_full");
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Задача ещё в очереди или считается — результат уже никому не нужен
+            future.cancel(true);
+            throw rejected(operation, "timeout");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Хеширование пароля прервано", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Ошибка хеширования пароля", e.getCause());
+        }
+    }
+
+    private TooManyRequestsException rejected(String operation, String reason) {
+        meterRegistry.counter("auth.password.hashing.rejected", "operation", operation, "reason", reason).increment();
+        log.warn("Password hashing rejected ({}): {} queued, {} active",
+                reason, pool.getQueue().size(), pool.getActiveCount());
+        return new TooManyRequestsException("Сервер перегружен, повторите попытку позже");
+    }
+
+    private Timer hashingTimer(String operation) {
+        return Timer.builder("auth.password.hashing")
+                .description("BCrypt time on the hashing pool, without queueing")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
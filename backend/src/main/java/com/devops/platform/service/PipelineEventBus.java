@@ -0,0 +1,168 @@
+package com.devops.platform.service;
+
+import com.devops.platform.dto.response.PipelineResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Внутрипроцессная шина изменений пайплайнов для SSE.
+ * Один канал (Sinks.Many) на проект, пока на него кто-то подписан:
+ * изменение, применённое трекером или вебхуком, вычисляется в дельту один раз
+ * и раздаётся всем зрителям проекта — N вкладок не означают N опросов БД.
+ * Дельта считается от последнего состояния канала, поэтому первое событие
+ * по каждому пайплайну подписчик получает целиком, со всеми стадиями.
+ * Медленный подписчик не тормозит публикацию: у каждого свой ограниченный буфер,
+ * при переполнении старые события отбрасываются.
+ */
+@Component
+public class PipelineEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelineEventBus.class);
+
+    private final Map<Long, ProjectChannel> channels = new ConcurrentHashMap<>();
+    private final int subscriberBufferSize;
+
+    public PipelineEventBus(@Value("${pipelines.stream.subscriber-buffer-size:64}") int subscriberBufferSize) {
+        this.subscriberBufferSize = subscriberBufferSize;
+    }
+
+    public record PipelineUpdate(Long projectId, PipelineResponse pipeline) {
+    }
+
+    /**
+     * Событие подписчика: снимок из БД или изменение из канала (целиком либо дельта).
+     */
+    public record PipelineEvent(PipelineResponse pipeline, boolean snapshot) {
+    }
+
+    /** Изменение в канале: полное состояние и дельта к предыдущему. */
+    private record Change(PipelineResponse full, PipelineResponse delta) {
+    }
+
+    /**
+     * Есть ли зрители у проекта — чтобы не собирать DTO впустую.
+     */
+    public boolean hasSubscribers(Long projectId) {
+        return channels.containsKey(projectId);
+    }
+
+    /**
+     * Снимок, затем изменения. Подписка на канал оформляется до чтения снимка:
+     * изменение, опубликованное во время чтения, ждёт в буфере и приходит после снимка.
+     *
+     * @param snapshot чтение текущего состояния из БД; null — пайплайнов ещё нет
+     */
+    public Flux<PipelineEvent> subscribe(Long projectId, Supplier<PipelineResponse> snapshot) {
+        return Flux.defer(() -> {
+            ProjectChannel channel = channels.compute(projectId, (id, existing) -> {
+                ProjectChannel result = existing != null ? existing : new ProjectChannel();
+                result.subscribers++;
+                return result;
+            });
+            // Публикации по каналу идут под его монитором — множество без синхронизации
+            Set<Long> seen = new HashSet<>();
+            ConnectableFlux<PipelineEvent> changes = channel.sink.asFlux()
+                    .map(change -> new PipelineEvent(
+                            seen.add(change.full().getId()) ? change.full() : change.delta(), false))
+                    .replay(subscriberBufferSize);
+            Disposable connection = changes.connect();
+
+            Mono<PipelineEvent> current = Mono.fromSupplier(snapshot)
+                    .map(pipeline -> new PipelineEvent(pipeline, true));
+            return Flux.concat(current, changes)
+                    .onBackpressureBuffer(subscriberBufferSize,
+                            dropped -> log.debug("Slow pipeline stream subscriber, event dropped for project {}",
+                                    projectId),
+                            BufferOverflowStrategy.DROP_OLDEST)
+                    .doFinally(signal -> {
+                        connection.dispose();
+                        release(projectId);
+                    });
+        });
+    }
+
+    public void publish(PipelineUpdate update) {
+        ProjectChannel channel = channels.get(update.projectId());
+        if (channel == null) {
+            return;
+        }
+        synchronized (channel) {
+            PipelineResponse delta = channel.delta(update.pipeline());
+            if (delta != null) {
+                channel.sink.tryEmitNext(new Change(update.pipeline(), delta));
+            }
+        }
+    }
+
+    private void release(Long projectId) {
+        channels.computeIfPresent(projectId, (id, channel) -> {
+            channel.subscribers--;
+            if (channel.subscribers > 0) {
+                return channel;
+            }
+            channel.sink.tryEmitComplete();
+            return null;
+        });
+    }
+
+    private static final class ProjectChannel {
+
+        private final Sinks.Many<Change> sink = Sinks.many().multicast().directBestEffort();
+        /** Последнее отправленное состояние каждого незавершённого пайплайна проекта. */
+        private final Map<Long, PipelineResponse> lastSent = new HashMap<>();
+        private int subscribers;
+
+        /**
+         * Дельта относительно последнего отправленного состояния:
+         * id и статус — всегда, стадии — только если какая-то из них изменилась,
+         * остальные поля — если изменились. null — менять нечего.
+         */
+        private PipelineResponse delta(PipelineResponse current) {
+            PipelineResponse previous = lastSent.put(current.getId(), current);
+            if (current.getFinishedAt() != null) {
+                lastSent.remove(current.getId());
+            }
+            if (previous == null) {
+                return current;
+            }
+
+            boolean stagesChanged = !Objects.equals(previous.getStages(), current.getStages());
+            boolean statusChanged = !Objects.equals(previous.getStatus(), current.getStatus());
+            boolean deployUrlChanged = !Objects.equals(previous.getDeployUrl(), current.getDeployUrl());
+            boolean finishedChanged = !Objects.equals(previous.getFinishedAt(), current.getFinishedAt());
+            if (!stagesChanged && !statusChanged && !deployUrlChanged && !finishedChanged) {
+                return null;
+            }
+
+            PipelineResponse delta = new PipelineResponse();
+            delta.setId(current.getId());
+            delta.setStatus(current.getStatus());
+            if (stagesChanged) {
+                delta.setStages(current.getStages());
+            }
+            if (deployUrlChanged) {
+                delta.setDeployUrl(current.getDeployUrl());
+            }
+            if (finishedChanged) {
+                delta.setFinishedAt(current.getFinishedAt());
+            }
+            return delta;
+        }
+    }
+}
@@ -1,19 +1,36 @@
 package com.devops.platform.service;
 
+import com.devops.platform.dto.response.PipelineHistoryResponse;
 import com.devops.platform.dto.response.PipelineResponse;
+import com.devops.platform.dto.response.PipelineStageResponse;
 import com.devops.platform.entity.Pipeline;
 import com.devops.platform.entity.PipelineStage;
 import com.devops.platform.entity.Project;
 import com.devops.platform.entity.enums.PipelineStatus;
 import com.devops.platform.entity.enums.ProjectStatus;
+import com.devops.platform.exception.BadRequestException;
 import com.devops.platform.repository.PipelineRepository;
+import com.devops.platform.repository.PipelineStageRepository;
+import com.devops.platform.repository.projection.PipelineStageSummary;
+import com.devops.platform.repository.projection.PipelineSummary;
+import com.devops.platform.service.GitLabService.GitLabPipelineInfo;
+import com.devops.platform.service.PipelineEventBus.PipelineUpdate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,77 +39,203 @@ public class PipelineService {
     private static final Logger log = LoggerFactory.getLogger(PipelineService.class);
     
     private final PipelineRepository pipelineRepository;
+    private final PipelineStageRepository stageRepository;
     private final ProjectService projectService;
+    private final GitLabClient gitLabClient;
+    private final PipelineTracker pipelineTracker;
+    private final PipelineEventBus eventBus;
     
-    public PipelineService(PipelineRepository pipelineRepository, ProjectService projectService) {
+    @Value("${gitlab.default-branch:main}")
+    private String defaultBranch;
+    
+    @Value("${pipelines.history.default-page-size:20}")
+    private int historyDefaultPageSize;
+    
+    @Value("${pipelines.history.max-page-size:100}")
+    private int historyMaxPageSize;
+    
+    @Value("${pipelines.stream.heartbeat:15s}")
+    private Duration streamHeartbeat;
+    
+    public PipelineService(PipelineRepository pipelineRepository,
+                           PipelineStageRepository stageRepository,
+                           ProjectService projectService,
+                           GitLabClient gitLabClient,
+                           PipelineTracker pipelineTracker,
+                           PipelineEventBus eventBus) {
         this.pipelineRepository = pipelineRepository;
+        this.stageRepository = stageRepository;
         this.projectService = projectService;
+        this.gitLabClient = gitLabClient;
+        this.pipelineTracker = pipelineTracker;
+        this.eventBus = eventBus;
     }
     
     public PipelineResponse getLatestPipeline(Long projectId) {
         Project project = projectService.findProjectByIdAndCurrentUser(projectId);
         
-        return pipelineRepository.findTopByProjectOrderByStartedAtDesc(project)
+        return pipelineRepository.findLatestWithStages(project.getId())
                 .map(PipelineResponse::fromEntity)
                 .orElse(null);
     }
     
-    public List<PipelineResponse> getPipelineHistory(Long projectId) {
+    /**
+     * SSE-поток пайплайнов проекта: сначала снимок последнего пайплайна (event: snapshot),
+     * затем изменения из {@link PipelineEventBus} (event: pipeline) и периодический keep-alive.
+     * Первое изменение по пайплайну приходит целиком, следующие — дельтами.
+     * БД читается только при подписке, уже после подписки на шину, — дальше изменения приходят из шины.
+     */
+    public Flux<ServerSentEvent<PipelineResponse>> streamPipelines(Long projectId) {
         Project project = projectService.findProjectByIdAndCurrentUser(projectId);
         
-        return pipelineRepository.findByProjectWithStages(project)
-                .stream()
-                .map(PipelineResponse::fromEntity)
+        Flux<ServerSentEvent<PipelineResponse>> events = eventBus
+                .subscribe(project.getId(), () -> pipelineRepository.findLatestWithStages(project.getId())
+                        .map(PipelineResponse::fromEntity)
+                        .orElse(null))
+                .map(event -> ServerSentEvent.builder(event.pipeline())
+                        .event(event.snapshot() ? "snapshot" : "pipeline")
+                        .build());
+        Flux<ServerSentEvent<PipelineResponse>> heartbeats = Flux.interval(streamHeartbeat)
+                .map(tick -> ServerSentEvent.<PipelineResponse>builder().comment("keep-alive").build());
+        
+        return Flux.merge(events, heartbeats);
+    }
+    
+    /**
+     * Страница истории пайплайнов: keyset-пагинация по (startedAt, id),
+     * DTO-проекция без загрузки сущностей и стадии одним запросом на всю страницу.
+     *
+     * @param cursor nextCursor предыдущей страницы или null для первой
+     * @param size   размер страницы, ограничен pipelines.history.max-page-size
+     */
+    public PipelineHistoryResponse getPipelineHistory(Long projectId, String cursor, Integer size) {
+        Project project = projectService.findProjectByIdAndCurrentUser(projectId);
+        
+        int pageSize = size == null || size <= 0
+                ? historyDefaultPageSize
+                : Math.min(size, historyMaxPageSize);
+        // Одна лишняя строка — признак того, что есть следующая страница
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        
+        List<PipelineSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = pipelineRepository.findHistory(project.getId(), limit);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            rows = pipelineRepository.findHistoryAfter(
+                    project.getId(), after.startedAt(), after.id(), limit);
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<PipelineSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        Map<Long, List<PipelineStageResponse>> stagesByPipeline = new HashMap<>();
+        if (!page.isEmpty()) {
+            List<Long> ids = page.stream().map(PipelineSummary::id).toList();
+            for (PipelineStageSummary stage : stageRepository.findSummariesByPipelineIdIn(ids)) {
+                stagesByPipeline.computeIfAbsent(stage.pipelineId(), id -> new ArrayList<>())
+                        .add(PipelineStageResponse.fromSummary(stage));
+            }
+        }
+        
+        List<PipelineResponse> items = page.stream()
+                .map(row -> PipelineResponse.fromSummary(row,
+                        stagesByPipeline.getOrDefault(row.id(), List.of())))
                 .collect(Collectors.toList());
+        
+        String nextCursor = null;
+        if (hasMore) {
+            PipelineSummary last = page.get(page.size() - 1);
+            nextCursor = new HistoryCursor(last.startedAt(), last.id()).encode();
+        }
+        return new PipelineHistoryResponse(items, nextCursor);
     }
     
-    @Transactional
     public PipelineResponse triggerBuild(Long projectId) {
         Project project = projectService.findProjectByIdAndCurrentUser(projectId);
         
         log.info("Triggering build for project: {}", project.getName());
         
-        Pipeline pipeline = createPipeline(project, List.of("build", "test"));
-        simulatePipeline(pipeline);
-        
-        pipeline = pipelineRepository.save(pipeline);
+        Pipeline pipeline = startPipeline(project, PipelineKind.BUILD, null);
         projectService.updateProjectStatus(projectId, ProjectStatus.DEVELOPING);
         
         return PipelineResponse.fromEntity(pipeline);
     }
     
-    @Transactional
+    /**
+     * Запускает пайплайн с деплоем (джоба deploy-proj с PIPELINE_KIND=deploy не ручная).
+     * Проект станет DEPLOYED, когда трекер увидит успешную джобу стадии deploy.
+     */
     public PipelineResponse triggerDeploy(Long projectId) {
         Project project = projectService.findProjectByIdAndCurrentUser(projectId);
         
         log.info("Triggering deploy for project: {}", project.getName());
         
-        Pipeline pipeline = createPipeline(project, List.of("build", "test", "deploy"));
-        simulatePipeline(pipeline);
-        
         String deployUrl = String.format("http://%s.apps.local", project.getName());
-        pipeline.setDeployUrl(deployUrl);
-        
-        pipeline = pipelineRepository.save(pipeline);
-        projectService.updateDeployUrl(projectId, deployUrl);
+        Pipeline pipeline = startPipeline(project, PipelineKind.DEPLOY, deployUrl);
+        projectService.updateProjectStatus(projectId, ProjectStatus.DEPLOYING);
         
         return PipelineResponse.fromEntity(pipeline);
     }
     
-    @Transactional
     public PipelineResponse triggerSonarQube(Long projectId) {
         Project project = projectService.findProjectByIdAndCurrentUser(projectId);
         
         log.info("Triggering SonarQube analysis for project: {}", project.getName());
         
-        Pipeline pipeline = createPipeline(project, List.of("build", "sonar"));
-        simulatePipeline(pipeline);
-        
-        pipeline = pipelineRepository.save(pipeline);
+        Pipeline pipeline = startPipeline(project, PipelineKind.SONAR, null);
         
         return PipelineResponse.fromEntity(pipeline);
     }
     
+    /**
+     * Вид запуска. Значение уходит в GitLab переменной PIPELINE_KIND — по ней rules
+     * в .gitlab-ci.yml проекта (templates/gitlab-ci) выбирают джобы; стадии — заготовки
+     * до первого опроса.
+     */
+    private enum PipelineKind {
+        BUILD(List.of("build", "test")),
+        DEPLOY(List.of("build", "test", "push", "deploy")),
+        SONAR(List.of("build", "sonar"));
+        
+        private final List<String> stages;
+        
+        PipelineKind(List<String> stages) {
+            this.stages = stages;
+        }
+        
+        Map<String, String> variables() {
+            return Map.of("PIPELINE_KIND", name().toLowerCase());
+        }
+    }
+    
+    /**
+     * Запускает пайплайн в GitLab (вне транзакции — соединение с БД не ждёт GitLab),
+     * сохраняет его с gitlabPipelineId и ставит на отслеживание {@link PipelineTracker}.
+     * Стадии-заготовки заменяются реальными джобами при первом опросе.
+     */
+    private Pipeline startPipeline(Project project, PipelineKind kind, String deployUrl) {
+        if (project.getGitlabProjectId() == null) {
+            throw new BadRequestException("Репозиторий проекта ещё не создан в GitLab");
+        }
+        
+        GitLabPipelineInfo gitlabPipeline = gitLabClient
+                .triggerPipeline(project.getGitlabProjectId(), defaultBranch, kind.variables())
+                .block();
+        
+        Pipeline pipeline = createPipeline(project, kind.stages);
+        pipeline.setGitlabPipelineId(gitlabPipeline.getId());
+        pipeline.setStatus(PipelineStatus.fromGitLab(gitlabPipeline.getStatus()));
+        pipeline.setDeployUrl(deployUrl);
+        pipelineTracker.track(pipeline);
+        
+        pipeline = pipelineRepository.save(pipeline);
+        if (eventBus.hasSubscribers(project.getId())) {
+            eventBus.publish(new PipelineUpdate(project.getId(), PipelineResponse.fromEntity(pipeline)));
+        }
+        return pipeline;
+    }
+    
     private Pipeline createPipeline(Project project, List<String> stageNames) {
         Pipeline pipeline = Pipeline.builder()
                 .project(project)
@@ -112,12 +255,26 @@ public class PipelineService {
         return pipeline;
     }
     
-    private void simulatePipeline(Pipeline pipeline) {
-        pipeline.setStatus(PipelineStatus.SUCCESS);
-        pipeline.setFinishedAt(LocalDateTime.now());
+    /**
+     * Непрозрачный для клиента курсор: base64url("startedAt|id").
+     */
+    private record HistoryCursor(LocalDateTime startedAt, Long id) {
+        
+        String encode() {
+            String raw = startedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
         
-        for (PipelineStage stage : pipeline.getStages()) {
-            stage.setStatus(PipelineStatus.SUCCESS);
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Некорректный курсор истории пайплайнов");
+            }
         }
     }
-}
\ No newline at end of file
+}
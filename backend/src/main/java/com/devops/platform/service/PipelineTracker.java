@@ -0,0 +1,372 @@
+package com.devops.platform.service;
+
+import com.devops.platform.dto.response.PipelineResponse;
+import com.devops.platform.entity.Pipeline;
+import com.devops.platform.entity.PipelineStage;
+import com.devops.platform.entity.Project;
+import com.devops.platform.entity.enums.PipelineStatus;
+import com.devops.platform.entity.enums.ProjectStatus;
+import com.devops.platform.repository.PipelineRepository;
+import com.devops.platform.service.GitLabService.GitLabJobInfo;
+import com.devops.platform.service.GitLabService.GitLabPipelineInfo;
+import com.devops.platform.service.PipelineEventBus.PipelineUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Отслеживает пайплайны GitLab, запущенные платформой.
+ * Один планировщик на все пайплайны: за тик выбирает пачку тех,
+ * у которых наступил next_poll_at, опрашивает GitLab неблокирующими
+ * запросами (не больше {@code concurrency} одновременно) и применяет
+ * результаты одной транзакцией на пачку.
+ * Интервал опроса адаптивный: пока в пайплайне ничего не меняется,
+ * он удваивается до {@code max-interval}; любое изменение сбрасывает его
+ * к {@code min-interval}.
+ */
+@Component
+public class PipelineTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelineTracker.class);
+
+    private static final String DEPLOY_STAGE = "deploy";
+
+    private final PipelineRepository pipelineRepository;
+    private final GitLabClient gitLabClient;
+    private final TransactionTemplate transactionTemplate;
+    private final PipelineEventBus eventBus;
+    private final ProjectStatsService statsService;
+
+    private final int batchSize;
+    private final int maxBatchesPerTick;
+    private final int concurrency;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final Duration requestTimeout;
+
+    public PipelineTracker(PipelineRepository pipelineRepository,
+                           GitLabClient gitLabClient,
+                           TransactionTemplate transactionTemplate,
+                           PipelineEventBus eventBus,
+                           ProjectStatsService statsService,
+                           @Value("${pipelines.tracker.batch-size:100}") int batchSize,
+                           @Value("${pipelines.tracker.max-batches-per-tick:10}") int maxBatchesPerTick,
+                           @Value("${pipelines.tracker.concurrency:20}") int concurrency,
+                           @Value("${pipelines.tracker.min-interval:2s}") Duration minInterval,
+                           @Value("${pipelines.tracker.max-interval:60s}") Duration maxInterval,
+                           @Value("${pipelines.tracker.request-timeout:15s}") Duration requestTimeout) {
+        this.pipelineRepository = pipelineRepository;
+        this.gitLabClient = gitLabClient;
+        this.transactionTemplate = transactionTemplate;
+        this.eventBus = eventBus;
+        this.statsService = statsService;
+        this.batchSize = batchSize;
+        this.maxBatchesPerTick = maxBatchesPerTick;
+        this.concurrency = concurrency;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Ставит только что запущенный пайплайн на отслеживание — первый опрос сразу.
+     */
+    public void track(Pipeline pipeline) {
+        pipeline.setPollIntervalMs(minInterval.toMillis());
+        pipeline.setNextPollAt(LocalDateTime.now());
+    }
+
+    // =========================================================================
+    //  POLLING
+    // =========================================================================
+
+    @Scheduled(fixedDelayString = "${pipelines.tracker.tick-ms:2000}")
+    public void pollDuePipelines() {
+        for (int i = 0; i < maxBatchesPerTick; i++) {
+            List<PollTarget> batch = transactionTemplate.execute(status ->
+                    pipelineRepository.findDueForPolling(LocalDateTime.now(), PageRequest.of(0, batchSize))
+                            .stream()
+                            .map(p -> new PollTarget(p.getId(),
+                                    p.getProject().getGitlabProjectId(), p.getGitlabPipelineId()))
+                            .toList());
+            if (batch == null || batch.isEmpty()) {
+                return;
+            }
+
+            long startedAt = System.nanoTime();
+            List<PollResult> results = Flux.fromIterable(batch)
+                    .flatMap(this::fetch, concurrency)
+                    .collectList()
+                    .block();
+            List<PipelineUpdate> updates;
+            try {
+                updates = transactionTemplate.execute(status -> apply(results));
+            } catch (OptimisticLockingFailureException e) {
+                // Вебхук успел изменить пайплайн из пачки — пачка откатана, опросим заново
+                log.debug("Pipeline batch conflicted with a concurrent update, retrying: {}", e.getMessage());
+                continue;
+            }
+            updates.forEach(eventBus::publish);
+            log.debug("Polled {} pipelines in {} ms", batch.size(),
+                    Duration.ofNanos(System.nanoTime() - startedAt).toMillis());
+
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private Mono<PollResult> fetch(PollTarget target) {
+        if (target.gitlabProjectId() == null || target.gitlabPipelineId() == null) {
+            return Mono.just(new PollResult(target, null, null, true));
+        }
+        return Mono.zip(
+                        gitLabClient.getPipeline(target.gitlabProjectId(), target.gitlabPipelineId()),
+                        gitLabClient.getPipelineJobs(target.gitlabProjectId(), target.gitlabPipelineId()))
+                .timeout(requestTimeout)
+                .map(t -> new PollResult(target, t.getT1(), t.getT2(), false))
+                .onErrorResume(e -> {
+                    boolean gone = e instanceof WebClientResponseException.NotFound;
+                    log.warn("Pipeline {} poll failed{}: {}", target.pipelineId(),
+                            gone ? " (not found in GitLab)" : "", e.getMessage());
+                    return Mono.just(new PollResult(target, null, null, gone));
+                });
+    }
+
+    private List<PipelineUpdate> apply(List<PollResult> results) {
+        Map<Long, PollResult> byId = results.stream()
+                .collect(Collectors.toMap(r -> r.target().pipelineId(), Function.identity()));
+        List<PipelineUpdate> updates = new ArrayList<>();
+
+        for (Pipeline pipeline : pipelineRepository.findAllWithStagesByIdIn(byId.keySet())) {
+            PollResult result = byId.get(pipeline.getId());
+
+            if (result.gone()) {
+                // Пайплайн/проект удалён в GitLab — дальше опрашивать нечего
+                pipeline.setStatus(PipelineStatus.CANCELED);
+                finish(pipeline);
+                collectUpdate(pipeline, updates);
+                continue;
+            }
+            if (result.pipeline() == null) {
+                backOff(pipeline);
+                continue;
+            }
+
+            boolean changed = applyUpdate(pipeline, result.pipeline(), result.jobs());
+            if (pipeline.getStatus().isFinished()) {
+                finish(pipeline);
+                collectUpdate(pipeline, updates);
+            } else if (changed) {
+                pipeline.setPollIntervalMs(minInterval.toMillis());
+                pipeline.setNextPollAt(LocalDateTime.now().plus(minInterval));
+                collectUpdate(pipeline, updates);
+            } else {
+                backOff(pipeline);
+            }
+        }
+        return updates;
+    }
+
+    /**
+     * Снимок пайплайна для SSE-зрителей проекта (если они есть);
+     * публикуется в {@link PipelineEventBus} после коммита.
+     */
+    public void collectUpdate(Pipeline pipeline, List<PipelineUpdate> updates) {
+        Long projectId = pipeline.getProject().getId();
+        if (eventBus.hasSubscribers(projectId)) {
+            updates.add(new PipelineUpdate(projectId, PipelineResponse.fromEntity(pipeline)));
+        }
+    }
+
+    private void backOff(Pipeline pipeline) {
+        long current = pipeline.getPollIntervalMs() != null
+                ? pipeline.getPollIntervalMs() : minInterval.toMillis();
+        long next = Math.min(current * 2, maxInterval.toMillis());
+        pipeline.setPollIntervalMs(next);
+        pipeline.setNextPollAt(LocalDateTime.now().plus(Duration.ofMillis(next)));
+    }
+
+    private void finish(Pipeline pipeline) {
+        pipeline.setNextPollAt(null);
+        // Статистика — только при первом переходе в конечный статус: повторный finish
+        // (сверка после вебхука, перезапуск пайплайна в GitLab) счётчики не удваивает
+        if (pipeline.getFinishedAt() == null) {
+            pipeline.setFinishedAt(LocalDateTime.now());
+            statsService.pipelineFinished(pipeline);
+        }
+
+        // Деплой-пайплайн закончился, а джоба deploy так и не прошла (упала или ждёт ручного запуска)
+        Project project = pipeline.getProject();
+        if (pipeline.getDeployUrl() != null && project.getStatus() == ProjectStatus.DEPLOYING) {
+            project.setStatus(ProjectStatus.DEVELOPING);
+        }
+        log.info("Pipeline {} (GitLab {}) finished: {}", pipeline.getId(),
+                pipeline.getGitlabPipelineId(), pipeline.getStatus());
+    }
+
+    // =========================================================================
+    //  MAPPING
+    // =========================================================================
+
+    /**
+     * Переносит состояние пайплайна и полный список его джоб из GitLab в сущность.
+     *
+     * @return true, если что-то изменилось
+     */
+    public boolean applyUpdate(Pipeline pipeline, GitLabPipelineInfo info, List<GitLabJobInfo> jobs) {
+        boolean changed = applyStatus(pipeline, PipelineStatus.fromGitLab(info.getStatus()));
+        if (jobs != null && !jobs.isEmpty()) {
+            changed |= applyJobs(pipeline, jobs, true, false);
+        }
+        return changed;
+    }
+
+    public boolean applyStatus(Pipeline pipeline, PipelineStatus status) {
+        return applyStatus(pipeline, status, false);
+    }
+
+    /**
+     * @param keepFinished не откатывать SUCCESS/FAILED/CANCELED назад в незавершённый статус —
+     *                     как у {@link #applyJobs}, защита от вебхуков, пришедших не по порядку
+     * @return true, если статус изменился
+     */
+    public boolean applyStatus(Pipeline pipeline, PipelineStatus status, boolean keepFinished) {
+        if (pipeline.getStatus() == status) {
+            return false;
+        }
+        if (keepFinished && isTerminal(pipeline.getStatus()) && !status.isFinished()) {
+            return false;
+        }
+        pipeline.setStatus(status);
+        return true;
+    }
+
+    /**
+     * Джобы сопоставляются со стадиями по gitlabJobId; новая джоба сначала
+     * занимает стадию-заготовку с именем её stage (build/test/deploy...),
+     * иначе добавляется отдельной стадией.
+     *
+     * @param complete      jobs — полный список джоб пайплайна: заготовки,
+     *                      которым не нашлось джобы, удаляются
+     * @param keepFinished  не откатывать SUCCESS/FAILED/CANCELED назад в PENDING/RUNNING —
+     *                      защита от событий, пришедших не по порядку
+     * @return true, если что-то изменилось
+     */
+    public boolean applyJobs(Pipeline pipeline, List<GitLabJobInfo> jobs,
+                             boolean complete, boolean keepFinished) {
+        boolean changed = false;
+
+        Map<Long, PipelineStage> byJobId = new HashMap<>();
+        for (PipelineStage stage : pipeline.getStages()) {
+            if (stage.getGitlabJobId() != null) {
+                byJobId.put(stage.getGitlabJobId(), stage);
+            }
+        }
+
+        List<GitLabJobInfo> ordered = jobs.stream()
+                .sorted(Comparator.comparing(GitLabJobInfo::getId))
+                .toList();
+        for (GitLabJobInfo job : ordered) {
+            PipelineStatus jobStatus = PipelineStatus.fromGitLab(job.getStatus());
+            PipelineStage stage = byJobId.get(job.getId());
+            if (stage == null) {
+                stage = claimPlaceholder(pipeline, job.getStage());
+                if (stage == null) {
+                    stage = PipelineStage.builder().pipeline(pipeline).build();
+                    pipeline.getStages().add(stage);
+                }
+                stage.setGitlabJobId(job.getId());
+                stage.setName(job.getName());
+                byJobId.put(job.getId(), stage);
+                changed = true;
+            }
+            if (keepFinished && isTerminal(stage.getStatus()) && !jobStatus.isFinished()) {
+                continue;
+            }
+            if (stage.getStatus() != jobStatus) {
+                stage.setStatus(jobStatus);
+                changed = true;
+            }
+        }
+
+        if (complete) {
+            changed |= pipeline.getStages().removeIf(stage -> stage.getGitlabJobId() == null);
+        }
+        if (pipeline.getDeployUrl() != null && markDeployed(pipeline, ordered)) {
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Пайплайн обновлён извне (вебхуком): завершённый снимается с опроса,
+     * остальным опрос откладывается до max-interval — он нужен только для сверки.
+     */
+    public void afterExternalUpdate(Pipeline pipeline) {
+        if (pipeline.getStatus().isFinished()) {
+            if (pipeline.getNextPollAt() != null) {
+                finish(pipeline);
+            }
+            return;
+        }
+        pipeline.setPollIntervalMs(maxInterval.toMillis());
+        pipeline.setNextPollAt(LocalDateTime.now().plus(maxInterval));
+    }
+
+    private static boolean isTerminal(PipelineStatus status) {
+        return status == PipelineStatus.SUCCESS
+                || status == PipelineStatus.FAILED
+                || status == PipelineStatus.CANCELED;
+    }
+
+    private PipelineStage claimPlaceholder(Pipeline pipeline, String stageName) {
+        for (PipelineStage stage : pipeline.getStages()) {
+            if (stage.getGitlabJobId() == null && stage.getName().equals(stageName)) {
+                return stage;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Успешная джоба стадии deploy → у проекта появляется адрес, статус DEPLOYED.
+     */
+    private boolean markDeployed(Pipeline pipeline, List<GitLabJobInfo> jobs) {
+        boolean deployed = jobs.stream().anyMatch(job -> DEPLOY_STAGE.equals(job.getStage())
+                && PipelineStatus.fromGitLab(job.getStatus()) == PipelineStatus.SUCCESS);
+        Project project = pipeline.getProject();
+        if (!deployed || (project.getStatus() == ProjectStatus.DEPLOYED
+                && pipeline.getDeployUrl().equals(project.getDeployUrl()))) {
+            return false;
+        }
+        project.setDeployUrl(pipeline.getDeployUrl());
+        project.setStatus(ProjectStatus.DEPLOYED);
+        return true;
+    }
+
+    private record PollTarget(Long pipelineId, Long gitlabProjectId, Long gitlabPipelineId) {
+    }
+
+    private record PollResult(PollTarget target, GitLabPipelineInfo pipeline,
+                              List<GitLabJobInfo> jobs, boolean gone) {
+    }
+}
@@ -0,0 +1,339 @@
+package com.devops.platform.service;
+
+import com.devops.platform.entity.Project;
+import com.devops.platform.entity.ProvisioningStep;
+import com.devops.platform.entity.TechStack;
+import com.devops.platform.entity.User;
+import com.devops.platform.entity.enums.PipelineStatus;
+import com.devops.platform.entity.enums.ProjectStatus;
+import com.devops.platform.entity.enums.ProvisioningStepType;
+import com.devops.platform.exception.ResourceNotFoundException;
+import com.devops.platform.repository.ProjectRepository;
+import com.devops.platform.repository.ProvisioningStepRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Фоновое создание проекта: репозиторий в GitLab и генерация файлов идут параллельно,
+ * затем push файлов одновременно с выдачей владельцу прав Maintainer.
+ * Каждый шаг сохраняется отдельной записью {@link ProvisioningStep}
+ * в собственной короткой транзакции — соединение с БД не держится,
+ * пока идёт обращение к GitLab.
+ * Очередь создания живёт в памяти, поэтому после перезапуска узла проекты остаются
+ * в CREATED. Их подбирает {@link #recoverStale()}: если ни один шаг не начинался —
+ * создание запускается заново, иначе проект помечается FAILED (в GitLab уже могли
+ * остаться частичные изменения, повторять их вслепую нельзя).
+ * Метрики: projects.provisioning.step{step, outcome} на шаг, projects.provisioning{outcome} на весь проект,
+ * projects.provisioning.recovered{action} — восстановленные после перезапуска,
+ * projects.provisioning.active — сколько проектов создаётся на узле прямо сейчас.
+ */
+@Service
+public class ProjectProvisioningService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectProvisioningService.class);
+
+    private final ProjectRepository projectRepository;
+    private final ProvisioningStepRepository stepRepository;
+    private final GitLabClient gitLabClient;
+    private final GitLabService gitLabService;
+    private final ProjectTemplateService projectTemplateService;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor provisioningExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final Duration staleAfter;
+    private final int recoveryBatchSize;
+
+    /** Проекты, которые этот узел уже поставил в очередь или выполняет. */
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger active = new AtomicInteger();
+
+    public ProjectProvisioningService(ProjectRepository projectRepository,
+                                      ProvisioningStepRepository stepRepository,
+                                      GitLabClient gitLabClient,
+                                      GitLabService gitLabService,
+                                      ProjectTemplateService projectTemplateService,
+                                      TransactionTemplate transactionTemplate,
+                                      @Qualifier("provisioningExecutor") TaskExecutor provisioningExecutor,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${provisioning.recovery.stale-after:10m}") Duration staleAfter,
+                                      @Value("${provisioning.recovery.batch-size:50}") int recoveryBatchSize) {
+        this.projectRepository = projectRepository;
+        this.stepRepository = stepRepository;
+        this.gitLabClient = gitLabClient;
+        this.gitLabService = gitLabService;
+        this.projectTemplateService = projectTemplateService;
+        this.transactionTemplate = transactionTemplate;
+        this.provisioningExecutor = provisioningExecutor;
+        this.meterRegistry = meterRegistry;
+        this.staleAfter = staleAfter;
+        this.recoveryBatchSize = recoveryBatchSize;
+
+        Gauge.builder("projects.provisioning.active", active, AtomicInteger::get)
+                .description("Projects being provisioned on this node right now, queued ones excluded")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ставит создание проекта в очередь. Вызывается после коммита транзакции,
+     * в которой проект был сохранён.
+     */
+    public void startProvisioning(Long projectId) {
+        if (!inFlight.add(projectId)) {
+            return;
+        }
+        try {
+            provisioningExecutor.execute(() -> {
+                active.incrementAndGet();
+                try {
+                    provision(projectId);
+                } finally {
+                    active.decrementAndGet();
+                    inFlight.remove(projectId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            inFlight.remove(projectId);
+            log.error("Provisioning queue is full, project {} rejected", projectId);
+            failProject(projectId, "Очередь создания проектов переполнена, повторите позже");
+        }
+    }
+
+    // =========================================================================
+    //  RECOVERY
+    // =========================================================================
+
+    /**
+     * Подбирает проекты, которые висят в CREATED дольше {@code stale-after}: их задача
+     * потерялась вместе с очередью остановленного узла. Первый проход — вскоре после старта.
+     * Проект сначала захватывается условным UPDATE, поэтому при нескольких узлах
+     * его восстанавливает только один.
+     */
+    @Scheduled(initialDelayString = "${provisioning.recovery.initial-delay-ms:30000}",
+               fixedDelayString = "${provisioning.recovery.interval-ms:300000}")
+    public void recoverStale() {
+        LocalDateTime before = LocalDateTime.now().minus(staleAfter);
+        List<Long> staleIds = projectRepository.findStaleIds(
+                ProjectStatus.CREATED, before, PageRequest.of(0, recoveryBatchSize));
+
+        for (Long projectId : staleIds) {
+            if (inFlight.contains(projectId)) {
+                continue;
+            }
+            Boolean notStarted = transactionTemplate.execute(tx -> {
+                if (projectRepository.claimStale(projectId, ProjectStatus.CREATED,
+                        before, LocalDateTime.now()) == 0) {
+                    return null;
+                }
+                return stepRepository.findByProjectIdOrderByIdAsc(projectId).stream()
+                        .allMatch(step -> step.getStatus() == PipelineStatus.PENDING);
+            });
+            if (notStarted == null) {
+                continue;
+            }
+            if (notStarted) {
+                log.warn("Resubmitting provisioning of project {}: it was never started", projectId);
+                recoveredCounter("resubmitted").increment();
+                startProvisioning(projectId);
+            } else {
+                log.warn("Failing project {}: provisioning was interrupted midway", projectId);
+                recoveredCounter("failed").increment();
+                failProject(projectId, "Создание прервано перезапуском сервера, создайте проект заново");
+            }
+        }
+    }
+
+    // =========================================================================
+    //  PIPELINE
+    // =========================================================================
+
+    private void provision(Long projectId) {
+        ProvisioningContext ctx = transactionTemplate.execute(status -> {
+            Project project = projectRepository.findWithOwnerById(projectId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Проект", projectId));
+            User owner = project.getOwner();
+            return new ProvisioningContext(project.getName(), project.getStack(),
+                    owner.getRealUsername(), owner.getGitlabUserId());
+        });
+
+        log.info("=== PROVISION PROJECT '{}' (id={}) ===", ctx.name(), projectId);
+
+        long startedAt = System.nanoTime();
+        Timer.Sample provisioning = Timer.start(meterRegistry);
+
+        // ── Генерация файлов не зависит от GitLab — стартуем сразу ──
+        CompletableFuture<Map<String, String>> filesFuture = Mono.fromCallable(() ->
+                        runStep(projectId, ProvisioningStepType.GENERATE_FILES,
+                                () -> projectTemplateService.generateProjectFiles(
+                                        ctx.name(), ctx.stack())))
+                .subscribeOn(Schedulers.boundedElastic())
+                .toFuture();
+
+        try {
+            // ── Параллельно создаём репозиторий в GitLab ────────────
+            GitLabService.GitLabProjectInfo gitlabProject = runStep(projectId,
+                    ProvisioningStepType.CREATE_REPOSITORY,
+                    () -> gitLabClient.createGroupProject(
+                            ctx.name(), ctx.ownerUsername()).block());
+
+            transactionTemplate.executeWithoutResult(status -> {
+                Project project = projectRepository.getReferenceById(projectId);
+                project.setGitlabProjectId(gitlabProject.getId());
+                project.setGitlabUrl(
+                        gitLabService.getExternalProjectUrl(gitlabProject.getPathWithNamespace()));
+                project.setGitCloneUrl(
+                        gitLabService.getExternalCloneUrl(gitlabProject.getPathWithNamespace()));
+            });
+
+            Map<String, String> files = join(filesFuture);
+
+            // ── Push и выдача прав Maintainer — независимы, идут вместе ──
+            runStep(projectId, ProvisioningStepType.PUSH_FILES, () -> {
+                Mono<Void> member = gitLabClient.addProjectMember(
+                        gitlabProject.getId(), ctx.gitlabUserId(), 40);
+                Mono<Void> commit = Mono.empty();
+                if (!files.isEmpty()) {
+                    String commitMsg = String.format(
+                            "Initial project setup [%s + %s, docker=%s]",
+                            ctx.stack().getBackend().name().toLowerCase(),
+                            ctx.stack().getFrontend().name().toLowerCase(),
+                            ctx.stack().getUseDocker());
+                    commit = gitLabClient.commitFiles(gitlabProject.getId(), files, commitMsg);
+                }
+                return Mono.when(member, commit).block();
+            });
+
+            transactionTemplate.executeWithoutResult(status ->
+                    projectRepository.getReferenceById(projectId).setStatus(ProjectStatus.ACTIVE));
+            log.info("=== PROJECT '{}' PROVISIONED SUCCESSFULLY in {} ms ===", ctx.name(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            provisioning.stop(provisioningTimer("success"));
+
+        } catch (Exception e) {
+            log.error("Provisioning FAILED for '{}': {}", ctx.name(), e.getMessage(), e);
+            // Дожидаемся генерации, чтобы она не перезаписала статус шага после failProject
+            filesFuture.exceptionally(error -> null).join();
+            failProject(projectId, e.getMessage());
+            provisioning.stop(provisioningTimer("failure"));
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private <T> T runStep(Long projectId, ProvisioningStepType type, Supplier<T> action) {
+        updateStep(projectId, type, PipelineStatus.RUNNING, null);
+        long startedAt = System.nanoTime();
+        try {
+            T result = action.get();
+            long elapsed = System.nanoTime() - startedAt;
+            stepTimer(type, "success").record(elapsed, TimeUnit.NANOSECONDS);
+            updateStep(projectId, type, PipelineStatus.SUCCESS, null);
+            log.info("Provisioning step {} for project {} took {} ms", type, projectId,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return result;
+        } catch (RuntimeException e) {
+            stepTimer(type, "failure").record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            updateStep(projectId, type, PipelineStatus.FAILED, e.getMessage());
+            throw e;
+        }
+    }
+
+    private Counter recoveredCounter(String action) {
+        return Counter.builder("projects.provisioning.recovered")
+                .description("Projects left in CREATED by a stopped node and picked up again")
+                .tag("action", action)
+                .register(meterRegistry);
+    }
+
+    private Timer stepTimer(ProvisioningStepType type, String outcome) {
+        return Timer.builder("projects.provisioning.step")
+                .description("Time of one project provisioning step, without step bookkeeping")
+                .tags("step", type.name().toLowerCase(), "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Timer provisioningTimer(String outcome) {
+        return Timer.builder("projects.provisioning")
+                .description("Time from dequeuing a project to ACTIVE or FAILED")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void updateStep(Long projectId, ProvisioningStepType type,
+                            PipelineStatus status, String errorMessage) {
+        transactionTemplate.executeWithoutResult(tx ->
+                stepRepository.findByProjectIdAndStep(projectId, type).ifPresent(step -> {
+                    step.setStatus(status);
+                    if (status == PipelineStatus.RUNNING) {
+                        step.setStartedAt(LocalDateTime.now());
+                    } else {
+                        step.setFinishedAt(LocalDateTime.now());
+                    }
+                    step.setErrorMessage(truncate(errorMessage));
+                }));
+    }
+
+    /**
+     * Проект → FAILED, незавершённые шаги → SKIPPED.
+     */
+    private void failProject(Long projectId, String reason) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            projectRepository.findById(projectId).ifPresent(project ->
+                    project.setStatus(ProjectStatus.FAILED));
+            for (ProvisioningStep step : stepRepository.findByProjectIdOrderByIdAsc(projectId)) {
+                if (step.getStatus() == PipelineStatus.PENDING
+                        || step.getStatus() == PipelineStatus.RUNNING) {
+                    step.setStatus(PipelineStatus.SKIPPED);
+                    step.setFinishedAt(LocalDateTime.now());
+                    step.setErrorMessage(truncate(reason));
+                }
+            }
+        });
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= 1000) {
+            return message;
+        }
+        return message.substring(0, 1000);
+    }
+
+    private record ProvisioningContext(String name, TechStack stack,
+                                       String ownerUsername, Long gitlabUserId) {
+    }
+}
@@ -1,24 +1,33 @@
 package com.devops.platform.service;
 
 import com.devops.platform.dto.request.CreateProjectRequest;
+import com.devops.platform.dto.response.DashboardStatsResponse;
 import com.devops.platform.dto.response.ProjectResponse;
+import com.devops.platform.dto.response.ProjectStatsResponse;
+import com.devops.platform.dto.response.ProvisioningStatusResponse;
 import com.devops.platform.entity.Project;
+import com.devops.platform.entity.ProvisioningStep;
 import com.devops.platform.entity.TechStack;
 import com.devops.platform.entity.User;
 import com.devops.platform.entity.enums.BackendTech;
 import com.devops.platform.entity.enums.DatabaseTech;
 import com.devops.platform.entity.enums.FrontendTech;
+import com.devops.platform.entity.enums.PipelineStatus;
 import com.devops.platform.entity.enums.ProjectStatus;
+import com.devops.platform.entity.enums.ProvisioningStepType;
 import com.devops.platform.exception.BadRequestException;
 import com.devops.platform.exception.ResourceNotFoundException;
 import com.devops.platform.repository.ProjectRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,16 +38,19 @@ public class ProjectService {
     private final ProjectRepository projectRepository;
     private final AuthService authService;
     private final GitLabService gitLabService;
-    private final ProjectTemplateService projectTemplateService;
+    private final ProjectProvisioningService provisioningService;
+    private final ProjectStatsService statsService;
 
     public ProjectService(ProjectRepository projectRepository,
                           AuthService authService,
                           GitLabService gitLabService,
-                          ProjectTemplateService projectTemplateService) {
+                          ProjectProvisioningService provisioningService,
+                          ProjectStatsService statsService) {
         this.projectRepository = projectRepository;
         this.authService = authService;
         this.gitLabService = gitLabService;
-        this.projectTemplateService = projectTemplateService;
+        this.provisioningService = provisioningService;
+        this.statsService = statsService;
     }
 
     // =========================================================================
@@ -46,7 +58,7 @@ public class ProjectService {
     // =========================================================================
 
     public List<ProjectResponse> getCurrentUserProjects() {
-        User user = authService.getCurrentUser();
+        User user = authService.getCurrentUserReference();
         return projectRepository.findByOwnerOrderByCreatedAtDesc(user)
                 .stream()
                 .map(ProjectResponse::fromEntity)
@@ -58,10 +70,23 @@ public class ProjectService {
         return ProjectResponse.fromEntity(project);
     }
 
+    public ProjectStatsResponse getProjectStats(Long id) {
+        return statsService.getProjectStats(id, authService.getCurrentUserId());
+    }
+
+    public DashboardStatsResponse getDashboard() {
+        return statsService.getDashboard(authService.getCurrentUserId());
+    }
+
     // =========================================================================
     //  CREATE
     // =========================================================================
 
+    /**
+     * Сохраняет проект в статусе CREATED и ставит создание
+     * репозитория/файлов в GitLab в фоновую очередь.
+     * Прогресс — {@link #getProvisioningStatus(Long)}.
+     */
     @Transactional
     public ProjectResponse createProject(CreateProjectRequest request) {
         User user = authService.getCurrentUser();
@@ -70,9 +95,7 @@ public class ProjectService {
                 request.getName(), user.getRealUsername());
 
         // ── Валидация ───────────────────────────────────────────────
-        if (projectRepository.existsByNameAndOwner(request.getName(), user)) {
-            throw new BadRequestException("Проект с таким названием уже существует");
-        }
+        // Уникальность имени проверяет ограничение uk_projects_owner_name при INSERT
         if (user.getGitlabUserId() == null) {
             throw new BadRequestException("GitLab-аккаунт не привязан. Обратитесь к администратору.");
         }
@@ -97,58 +120,43 @@ public class ProjectService {
                 .owner(user)
                 .build();
 
-        project = projectRepository.save(project);
+        for (ProvisioningStepType type : ProvisioningStepType.values()) {
+            project.getProvisioningSteps().add(ProvisioningStep.builder()
+                    .step(type)
+                    .status(PipelineStatus.PENDING)
+                    .project(project)
+                    .build());
+        }
 
         try {
-            // ── 1. Создаём репозиторий в GitLab ─────────────────────
-            log.info("Step 1: Creating GitLab repository...");
-            GitLabService.GitLabProjectInfo gitlabProject =
-                    gitLabService.createProjectInGroup(
-                            request.getName(),
-                            user.getRealUsername(),
-                            user.getGitlabUserId());
-
-            project.setGitlabProjectId(gitlabProject.getId());
-            project.setGitlabUrl(
-                    gitLabService.getExternalProjectUrl(
-                            gitlabProject.getPathWithNamespace()));
-            project.setGitCloneUrl(
-                    gitLabService.getExternalCloneUrl(
-                            gitlabProject.getPathWithNamespace()));
-
-            // ── 2. Генерируем файлы шаблона ─────────────────────────
-            log.info("Step 2: Generating template files...");
-            Map<String, String> files =
-                    projectTemplateService.generateProjectFiles(
-                            request.getName(), stack);
-
-            // ── 3. Пушим файлы в репозиторий ────────────────────────
-            log.info("Step 3: Pushing {} files to GitLab...", files.size());
-            if (!files.isEmpty()) {
-                String commitMsg = String.format(
-                        "Initial project setup [%s + %s, docker=%s]",
-                        stack.getBackend().name().toLowerCase(),
-                        stack.getFrontend().name().toLowerCase(),
-                        stack.getUseDocker());
-
-                gitLabService.commitFiles(
-                        gitlabProject.getId(), files, commitMsg);
+            project = projectRepository.saveAndFlush(project);
+        } catch (DataIntegrityViolationException e) {
+            if (isViolationOf(e, Project.UK_OWNER_NAME)) {
+                throw new BadRequestException("Проект с таким названием уже существует");
             }
-
-            project.setStatus(ProjectStatus.ACTIVE);
-            log.info("=== PROJECT '{}' CREATED SUCCESSFULLY ===", request.getName());
-
-        } catch (Exception e) {
-            log.error("GitLab FAILED for '{}': {}", request.getName(), e.getMessage(), e);
-            project.setStatus(ProjectStatus.FAILED);
-            project = projectRepository.save(project);
-            throw new RuntimeException("Ошибка создания репозитория: " + e.getMessage(), e);
+            throw e;
         }
+        statsService.projectCreated(project);
+
+        // ── GitLab — в фоне, после коммита ──────────────────────────
+        Long projectId = project.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                provisioningService.startProvisioning(projectId);
+            }
+        });
 
-        project = projectRepository.save(project);
         return ProjectResponse.fromEntity(project);
     }
 
+    public ProvisioningStatusResponse getProvisioningStatus(Long id) {
+        User user = authService.getCurrentUserReference();
+        Project project = projectRepository.findWithStepsByIdAndOwner(id, user)
+                .orElseThrow(() -> new ResourceNotFoundException("Проект", id));
+        return ProvisioningStatusResponse.fromEntity(project);
+    }
+
     // =========================================================================
     //  DELETE
     // =========================================================================
@@ -167,6 +175,7 @@ public class ProjectService {
             }
         }
 
+        statsService.projectDeleted(project);
         projectRepository.delete(project);
     }
 
@@ -194,8 +203,14 @@ public class ProjectService {
     // =========================================================================
 
     public Project findProjectByIdAndCurrentUser(Long id) {
-        User user = authService.getCurrentUser();
+        User user = authService.getCurrentUserReference();
         return projectRepository.findByIdAndOwner(id, user)
                 .orElseThrow(() -> new ResourceNotFoundException("Проект", id));
     }
+
+    private static boolean isViolationOf(DataIntegrityViolationException e, String constraint) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase().contains(constraint);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.devops.platform.service;
+
+import com.devops.platform.dto.response.DashboardStatsResponse;
+import com.devops.platform.dto.response.ProjectStatsResponse;
+import com.devops.platform.entity.OwnerStats;
+import com.devops.platform.entity.Pipeline;
+import com.devops.platform.entity.PipelineCounters;
+import com.devops.platform.entity.Project;
+import com.devops.platform.entity.ProjectStats;
+import com.devops.platform.entity.User;
+import com.devops.platform.entity.enums.PipelineStatus;
+import com.devops.platform.exception.ResourceNotFoundException;
+import com.devops.platform.repository.OwnerStatsRepository;
+import com.devops.platform.repository.ProjectStatsRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Денормализованная статистика проектов и владельцев.
+ * Счётчики обновляются в транзакции, завершающей пайплайн, атомарными UPDATE;
+ * чтение — одна строка по первичному ключу, независимо от длины истории.
+ * Методы записи вызываются внутри транзакций вызывающей стороны.
+ * Строка owner_stats создаётся при регистрации; у пользователей, зарегистрированных
+ * раньше, — при первом проекте, в отдельной транзакции.
+ */
+@Service
+public class ProjectStatsService {
+
+    private final ProjectStatsRepository projectStatsRepository;
+    private final OwnerStatsRepository ownerStatsRepository;
+    private final TransactionTemplate newTransaction;
+
+    public ProjectStatsService(ProjectStatsRepository projectStatsRepository,
+                               OwnerStatsRepository ownerStatsRepository,
+                               PlatformTransactionManager transactionManager) {
+        this.projectStatsRepository = projectStatsRepository;
+        this.ownerStatsRepository = ownerStatsRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // =========================================================================
+    //  READ
+    // =========================================================================
+
+    public ProjectStatsResponse getProjectStats(Long projectId, Long ownerId) {
+        ProjectStats stats = projectStatsRepository.findByProjectIdAndOwnerId(projectId, ownerId)
+                .orElseThrow(() -> new ResourceNotFoundException("Проект", projectId));
+        return ProjectStatsResponse.fromCounters(stats.getCounters());
+    }
+
+    public DashboardStatsResponse getDashboard(Long ownerId) {
+        OwnerStats stats = ownerStatsRepository.findById(ownerId)
+                .orElseGet(() -> OwnerStats.builder().ownerId(ownerId).build());
+        return DashboardStatsResponse.fromEntity(stats);
+    }
+
+    // =========================================================================
+    //  WRITE
+    // =========================================================================
+
+    /**
+     * Пустая строка статистики владельца — в транзакции регистрации.
+     */
+    public void ownerRegistered(User owner) {
+        ownerStatsRepository.insertEmpty(owner.getId());
+    }
+
+    public void projectCreated(Project project) {
+        Long ownerId = project.getOwner().getId();
+        projectStatsRepository.save(ProjectStats.builder()
+                .projectId(project.getId())
+                .ownerId(ownerId)
+                .build());
+        if (ownerStatsRepository.addProjects(ownerId, 1) == 0) {
+            // Пользователь зарегистрирован раньше, чем появилась owner_stats
+            createOwnerStats(ownerId);
+            ownerStatsRepository.addProjects(ownerId, 1);
+        }
+    }
+
+    /**
+     * Вставка в отдельной транзакции: если параллельный запрос того же владельца
+     * успел первым, конфликт ключа откатывает только её, а не создание проекта.
+     */
+    private void createOwnerStats(Long ownerId) {
+        try {
+            newTransaction.executeWithoutResult(tx -> ownerStatsRepository.insertEmpty(ownerId));
+        } catch (DataIntegrityViolationException e) {
+            // Строку уже создал параллельный запрос — дальше просто увеличиваем счётчик
+        }
+    }
+
+    public void projectDeleted(Project project) {
+        projectStatsRepository.findById(project.getId()).ifPresent(stats -> {
+            PipelineCounters counters = stats.getCounters();
+            ownerStatsRepository.removeProject(stats.getOwnerId(),
+                    counters.getBuilds(), counters.getDeploys(), counters.getSuccessfulPipelines(),
+                    counters.getFinishedPipelines(), counters.getTotalDurationMs());
+            projectStatsRepository.delete(stats);
+        });
+    }
+
+    /**
+     * Учитывает завершённый пайплайн. Вызывается ровно один раз на пайплайн —
+     * из {@link PipelineTracker}, при переходе в конечный статус.
+     */
+    public void pipelineFinished(Pipeline pipeline) {
+        Project project = pipeline.getProject();
+        long deploys = pipeline.getDeployUrl() != null ? 1 : 0;
+        long builds = 1 - deploys;
+        long successful = pipeline.getStatus() == PipelineStatus.SUCCESS ? 1 : 0;
+        long durationMs = pipeline.getStartedAt() != null
+                ? Math.max(0, Duration.between(pipeline.getStartedAt(), pipeline.getFinishedAt()).toMillis())
+                : 0;
+
+        projectStatsRepository.recordFinished(project.getId(),
+                builds, deploys, successful, durationMs, pipeline.getFinishedAt());
+        ownerStatsRepository.recordFinished(project.getOwner().getId(),
+                builds, deploys, successful, durationMs, pipeline.getFinishedAt());
+    }
+}
@@ -2,13 +2,25 @@ package com.devops.platform.service;
 
 import com.devops.platform.entity.TechStack;
 import com.devops.platform.entity.enums.BackendTech;
+import com.devops.platform.entity.enums.DatabaseTech;
 import com.devops.platform.entity.enums.FrontendTech;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class ProjectTemplateService {
@@ -16,9 +28,32 @@ public class ProjectTemplateService {
     private static final Logger log = LoggerFactory.getLogger(ProjectTemplateService.class);
 
     private final TemplateService templateService;
-
-    public ProjectTemplateService(TemplateService templateService) {
+    private final MeterRegistry meterRegistry;
+    private final Map<StackKey, StackSkeleton> skeletonCache;
+    private final AtomicLong skeletonHits = new AtomicLong();
+    private final AtomicLong skeletonMisses = new AtomicLong();
+
+    public ProjectTemplateService(TemplateService templateService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${templates.skeleton-cache-size:32}") int skeletonCacheSize) {
         this.templateService = templateService;
+        this.meterRegistry = meterRegistry;
+        this.skeletonCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StackKey, StackSkeleton> eldest) {
+                return size() > skeletonCacheSize;
+            }
+        };
+
+        Gauge.builder("templates.skeleton.cache.hit.ratio", this, ProjectTemplateService::skeletonHitRatio)
+                .description("Hit ratio of the per-stack skeleton cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("templates.skeleton.cache.requests", skeletonHits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("templates.skeleton.cache.requests", skeletonMisses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(meterRegistry);
     }
 
     // =========================================================================
@@ -26,42 +61,195 @@ public class ProjectTemplateService {
     // =========================================================================
 
     public Map<String, String> generateProjectFiles(String projectName, TechStack stack) {
-        Map<String, String> files = new LinkedHashMap<>();
         Map<String, String> vars = createBaseVariables(projectName, stack);
 
         log.info("Generating project files: name={}, backend={}, frontend={}, docker={}",
                 projectName, stack.getBackend(), stack.getFrontend(), stack.getUseDocker());
 
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<String, String> files = getSkeleton(stack).render(vars);
+        sample.stop(Timer.builder("templates.generate")
+                .description("Project file generation time, including skeleton cache misses")
+                .tag("backend", stack.getBackend().name().toLowerCase())
+                .tag("frontend", stack.getFrontend().name().toLowerCase())
+                .register(meterRegistry));
+
+        log.info("Generated {} files for project '{}'", files.size(), projectName);
+        return files;
+    }
+
+    /**
+     * Проверяет при старте, что для каждой комбинации стека,
+     * которую может запросить пользователь, есть все шаблоны.
+     * Иначе приложение не поднимается — вместо runtime-warn при создании проекта.
+     */
+    @PostConstruct
+    public void validateTemplates() {
+        Set<String> missing = new TreeSet<>();
+        for (TechStack stack : allStacks()) {
+            for (TemplateFile file : planProjectFiles(stack)) {
+                if (!templateService.templateExists(file.templatePath())) {
+                    missing.add(file.templatePath());
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing project templates: " + missing);
+        }
+        log.info("Template coverage verified for {} stack combinations", allStacks().size());
+    }
+
+    // =========================================================================
+    //  FILE PLAN
+    // =========================================================================
+
+    /**
+     * Файл проекта: путь в репозитории → шаблон, raw = без подстановки переменных.
+     * Путь в репозитории сам может содержать плейсхолдеры {{KEY}}.
+     */
+    private record TemplateFile(String repoPath, String templatePath, boolean raw) {
+    }
+
+    private List<TemplateFile> planProjectFiles(TechStack stack) {
+        List<TemplateFile> files = new ArrayList<>();
+
         // ── Root files ──────────────────────────────────────────────
-        addTemplate(files, "README.md", "README.md", vars);
-        addTemplate(files, ".gitignore", "gitignore.txt", vars);
+        addTemplate(files, "README.md", "README.md");
+        addTemplate(files, ".gitignore", "gitignore.txt");
 
         // ── .gitlab-ci.yml ──────────────────────────────────────────
         String ciPath = getCiTemplatePath(stack);
-        addTemplate(files, ".gitlab-ci.yml", ciPath, vars);
+        addTemplate(files, ".gitlab-ci.yml", ciPath);
 
         // ── docker-compose.yml ──────────────────────────────────────
         if (Boolean.TRUE.equals(stack.getUseDocker())) {
             String dcPath = getDockerComposeTemplatePath(stack);
-            addTemplate(files, "docker-compose.yml", dcPath, vars);
+            addTemplate(files, "docker-compose.yml", dcPath);
         }
 
         // ── Database ────────────────────────────────────────────────
-        generateDatabaseFiles(files, vars);
+        generateDatabaseFiles(files);
 
         // ── Backend ─────────────────────────────────────────────────
-        generateBackendFiles(files, stack, vars);
+        generateBackendFiles(files, stack);
 
         // ── Frontend ────────────────────────────────────────────────
-        generateFrontendFiles(files, stack, vars);
+        generateFrontendFiles(files, stack);
 
         // ── Ansible ─────────────────────────────────────────────────
         generateAnsibleFiles(files, stack);
 
-        log.info("Generated {} files for project '{}'", files.size(), projectName);
         return files;
     }
 
+    // =========================================================================
+    //  STACK SKELETON CACHE
+    // =========================================================================
+
+    private record StackKey(BackendTech backend, FrontendTech frontend,
+                            DatabaseTech database, boolean useDocker) {
+
+        static StackKey of(TechStack stack) {
+            return new StackKey(stack.getBackend(), stack.getFrontend(),
+                    stack.getDatabase(), Boolean.TRUE.equals(stack.getUseDocker()));
+        }
+    }
+
+    /**
+     * Один файл скелета: путь и шаблон уже разобраны,
+     * raw-файлы (Ansible) загружены заранее.
+     */
+    private record SkeletonFile(CompiledTemplate repoPath,
+                                CompiledTemplate template,
+                                String rawContent) {
+    }
+
+    /**
+     * Неизменяемая структура проекта для одной комбинации стека.
+     * Для нового проекта остаётся только подставить переменные имени.
+     */
+    private record StackSkeleton(List<SkeletonFile> files) {
+
+        Map<String, String> render(Map<String, String> vars) {
+            Map<String, String> result = new LinkedHashMap<>(files.size() * 2);
+            for (SkeletonFile file : files) {
+                result.put(file.repoPath().render(vars),
+                        file.rawContent() != null
+                                ? file.rawContent()
+                                : file.template().render(vars));
+            }
+            return result;
+        }
+    }
+
+    private StackSkeleton getSkeleton(TechStack stack) {
+        StackKey key = StackKey.of(stack);
+        synchronized (skeletonCache) {
+            StackSkeleton skeleton = skeletonCache.get(key);
+            if (skeleton != null) {
+                skeletonHits.incrementAndGet();
+                return skeleton;
+            }
+        }
+
+        skeletonMisses.incrementAndGet();
+        StackSkeleton skeleton = buildSkeleton(stack);
+        synchronized (skeletonCache) {
+            skeletonCache.putIfAbsent(key, skeleton);
+        }
+        return skeleton;
+    }
+
+    private StackSkeleton buildSkeleton(TechStack stack) {
+        List<SkeletonFile> files = new ArrayList<>();
+        for (TemplateFile file : planProjectFiles(stack)) {
+            CompiledTemplate repoPath = CompiledTemplate.compile(file.repoPath());
+            if (file.raw()) {
+                String content = templateService.loadTemplateRaw(file.templatePath());
+                if (content != null) {
+                    files.add(new SkeletonFile(repoPath, null, content));
+                } else {
+                    log.warn("Raw template not found: {} → skipping repo file: {}",
+                            file.templatePath(), file.repoPath());
+                }
+            } else {
+                CompiledTemplate template = templateService.getCompiledTemplate(file.templatePath());
+                if (template != null) {
+                    files.add(new SkeletonFile(repoPath, template, null));
+                } else {
+                    log.warn("Template not found: {} → skipping repo file: {}",
+                            file.templatePath(), file.repoPath());
+                }
+            }
+        }
+        return new StackSkeleton(List.copyOf(files));
+    }
+
+    private double skeletonHitRatio() {
+        long hits = skeletonHits.get();
+        long total = hits + skeletonMisses.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private List<TechStack> allStacks() {
+        List<TechStack> stacks = new ArrayList<>();
+        for (BackendTech backend : BackendTech.values()) {
+            for (FrontendTech frontend : FrontendTech.values()) {
+                for (DatabaseTech database : DatabaseTech.values()) {
+                    for (boolean useDocker : new boolean[]{true, false}) {
+                        stacks.add(TechStack.builder()
+                                .backend(backend)
+                                .frontend(frontend)
+                                .database(database)
+                                .useDocker(useDocker)
+                                .build());
+                    }
+                }
+            }
+        }
+        return stacks;
+    }
+
     // =========================================================================
     //  VARIABLES
     // =========================================================================
@@ -144,7 +332,7 @@ public class ProjectTemplateService {
      * Все файлы загружаются raw — без подстановки переменных,
      * чтобы Jinja2-синтаксис Ansible {{ }} не конфликтовал.
      */
-    private void generateAnsibleFiles(Map<String, String> files, TechStack stack) {
+    private void generateAnsibleFiles(List<TemplateFile> files, TechStack stack) {
         // ── Общие файлы ─────────────────────────────────────────────
         addRawFile(files, "ansible/ansible.cfg",
                          "ansible/ansible.cfg");
@@ -168,99 +356,98 @@ public class ProjectTemplateService {
     //  BACKEND FILES
     // =========================================================================
 
-    private void generateBackendFiles(Map<String, String> files,
-                                      TechStack stack,
-                                      Map<String, String> vars) {
+    private void generateBackendFiles(List<TemplateFile> files,
+                                      TechStack stack) {
         String tp = "backend/" + stack.getBackend().name().toLowerCase() + "/";
 
         switch (stack.getBackend()) {
 
             case JAVA -> {
-                String pkgPath = vars.get("PACKAGE_PATH");
+                String pkgPath = "{{PACKAGE_PATH}}";
 
                 addTemplate(files,
                         "backend/pom.xml",
-                        tp + "pom.xml", vars);
+                        tp + "pom.xml");
                 addTemplate(files,
                         "backend/src/main/java/" + pkgPath + "/Application.java",
-                        tp + "Application.java", vars);
+                        tp + "Application.java");
                 addTemplate(files,
                         "backend/src/main/java/" + pkgPath + "/controller/HelloController.java",
-                        tp + "HelloController.java", vars);
+                        tp + "HelloController.java");
                 addTemplate(files,
                         "backend/src/main/resources/application.yml",
-                        tp + "application.yml", vars);
+                        tp + "application.yml");
 
                 if (Boolean.TRUE.equals(stack.getUseDocker())) {
                     addTemplate(files,
                             "backend/Dockerfile",
-                            tp + "Dockerfile", vars);
+                            tp + "Dockerfile");
                 }
             }
 
             case PYTHON -> {
-                String pyPkg = vars.get("project_name_py");
+                String pyPkg = "{{project_name_py}}";
 
                 addTemplate(files,
                         "backend/" + pyPkg + "/__init__.py",
-                        tp + "api_init.py", vars);
+                        tp + "api_init.py");
                 addTemplate(files,
                         "backend/" + pyPkg + "/settings.py",
-                        tp + "settings.py", vars);
+                        tp + "settings.py");
                 addTemplate(files,
                         "backend/" + pyPkg + "/urls.py",
-                        tp + "urls.py", vars);
+                        tp + "urls.py");
                 addTemplate(files,
                         "backend/" + pyPkg + "/wsgi.py",
-                        tp + "wsgi.py", vars);
+                        tp + "wsgi.py");
 
                 addTemplate(files,
                         "backend/api/__init__.py",
-                        tp + "api_init.py", vars);
+                        tp + "api_init.py");
                 addTemplate(files,
                         "backend/api/urls.py",
-                        tp + "api_urls.py", vars);
+                        tp + "api_urls.py");
                 addTemplate(files,
                         "backend/api/views.py",
-                        tp + "views.py", vars);
+                        tp + "views.py");
 
                 addTemplate(files,
                         "backend/manage.py",
-                        tp + "manage.py", vars);
+                        tp + "manage.py");
                 addTemplate(files,
                         "backend/requirements.txt",
-                        tp + "requirements.txt", vars);
+                        tp + "requirements.txt");
 
                 if (Boolean.TRUE.equals(stack.getUseDocker())) {
                     addTemplate(files,
                             "backend/Dockerfile",
-                            tp + "Dockerfile", vars);
+                            tp + "Dockerfile");
                 }
             }
 
             case CSHARP -> {
-                String csprojName = vars.get("project-name");
+                String csprojName = "{{project-name}}";
 
                 addTemplate(files,
                         "backend/" + csprojName + ".csproj",
-                        tp + "project.csproj", vars);
+                        tp + "project.csproj");
                 addTemplate(files,
                         "backend/Program.cs",
-                        tp + "Program.cs", vars);
+                        tp + "Program.cs");
                 addTemplate(files,
                         "backend/Controllers/HelloController.cs",
-                        tp + "HelloController.cs", vars);
+                        tp + "HelloController.cs");
                 addTemplate(files,
                         "backend/Data/AppDbContext.cs",
-                        tp + "AppDbContext.cs", vars);
+                        tp + "AppDbContext.cs");
                 addTemplate(files,
                         "backend/appsettings.json",
-                        tp + "appsettings.json", vars);
+                        tp + "appsettings.json");
 
                 if (Boolean.TRUE.equals(stack.getUseDocker())) {
                     addTemplate(files,
                             "backend/Dockerfile",
-                            tp + "Dockerfile", vars);
+                            tp + "Dockerfile");
                 }
             }
         }
@@ -270,68 +457,67 @@ public class ProjectTemplateService {
     //  FRONTEND FILES
     // =========================================================================
 
-    private void generateFrontendFiles(Map<String, String> files,
-                                       TechStack stack,
-                                       Map<String, String> vars) {
+    private void generateFrontendFiles(List<TemplateFile> files,
+                                       TechStack stack) {
         String tp = "frontend/" + stack.getFrontend().name().toLowerCase() + "/";
 
         switch (stack.getFrontend()) {
 
             case REACT -> {
                 addTemplate(files, "frontend/package.json",
-                        tp + "package.json", vars);
+                        tp + "package.json");
                 addTemplate(files, "frontend/vite.config.js",
-                        tp + "vite.config.js", vars);
+                        tp + "vite.config.js");
                 addTemplate(files, "frontend/index.html",
-                        tp + "index.html", vars);
+                        tp + "index.html");
                 addTemplate(files, "frontend/src/main.jsx",
-                        tp + "main.jsx", vars);
+                        tp + "main.jsx");
                 addTemplate(files, "frontend/src/App.jsx",
-                        tp + "App.jsx", vars);
+                        tp + "App.jsx");
                 addTemplate(files, "frontend/src/index.css",
-                        tp + "index.css", vars);
+                        tp + "index.css");
             }
 
             case VUE -> {
                 addTemplate(files, "frontend/package.json",
-                        tp + "package.json", vars);
+                        tp + "package.json");
                 addTemplate(files, "frontend/vite.config.js",
-                        tp + "vite.config.js", vars);
+                        tp + "vite.config.js");
                 addTemplate(files, "frontend/index.html",
-                        tp + "index.html", vars);
+                        tp + "index.html");
                 addTemplate(files, "frontend/src/main.js",
-                        tp + "main.js", vars);
+                        tp + "main.js");
                 addTemplate(files, "frontend/src/App.vue",
-                        tp + "App.vue", vars);
+                        tp + "App.vue");
             }
 
             case ANGULAR -> {
                 addTemplate(files, "frontend/package.json",
-                        tp + "package.json", vars);
+                        tp + "package.json");
                 addTemplate(files, "frontend/angular.json",
-                        tp + "angular.json", vars);
+                        tp + "angular.json");
                 addTemplate(files, "frontend/tsconfig.json",
-                        tp + "tsconfig.json", vars);
+                        tp + "tsconfig.json");
                 addTemplate(files, "frontend/tsconfig.app.json",
-                        tp + "tsconfig.app.json", vars);
+                        tp + "tsconfig.app.json");
                 addTemplate(files, "frontend/proxy.conf.json",
-                        tp + "proxy.conf.json", vars);
+                        tp + "proxy.conf.json");
                 addTemplate(files, "frontend/src/index.html",
-                        tp + "src/index.html", vars);
+                        tp + "src/index.html");
                 addTemplate(files, "frontend/src/main.ts",
-                        tp + "src/main.ts", vars);
+                        tp + "src/main.ts");
                 addTemplate(files, "frontend/src/styles.css",
-                        tp + "src/styles.css", vars);
+                        tp + "src/styles.css");
                 addTemplate(files, "frontend/src/app/app.component.ts",
-                        tp + "src/app/app.component.ts", vars);
+                        tp + "src/app/app.component.ts");
             }
         }
 
         if (Boolean.TRUE.equals(stack.getUseDocker())) {
             addTemplate(files, "frontend/Dockerfile",
-                    tp + "Dockerfile", vars);
+                    tp + "Dockerfile");
             addTemplate(files, "frontend/nginx.conf",
-                    tp + "nginx.conf", vars);
+                    tp + "nginx.conf");
         }
     }
 
@@ -339,43 +525,25 @@ public class ProjectTemplateService {
     //  DATABASE FILES
     // =========================================================================
 
-    private void generateDatabaseFiles(Map<String, String> files,
-                                       Map<String, String> vars) {
+    private void generateDatabaseFiles(List<TemplateFile> files) {
         addTemplate(files, "database/init.sql",
-                "database/init.sql", vars);
+                "database/init.sql");
     }
 
     // =========================================================================
     //  HELPERS
     // =========================================================================
 
-    private void addTemplate(Map<String, String> files,
+    private void addTemplate(List<TemplateFile> files,
                              String repoPath,
-                             String templatePath,
-                             Map<String, String> vars) {
-        String content = templateService.loadTemplate(templatePath, vars);
-        if (content != null) {
-            files.put(repoPath, content);
-        } else {
-            log.warn("Template not found: {} → skipping repo file: {}",
-                    templatePath, repoPath);
-        }
+                             String templatePath) {
+        files.add(new TemplateFile(repoPath, templatePath, false));
     }
 
-    /**
-     * Загружает файл БЕЗ подстановки переменных (raw).
-     * Для Ansible — чтобы {{ }} не ломался нашим шаблонизатором.
-     */
-    private void addRawFile(Map<String, String> files,
+    private void addRawFile(List<TemplateFile> files,
                             String repoPath,
                             String templatePath) {
-        String content = templateService.loadTemplateRaw(templatePath);
-        if (content != null) {
-            files.put(repoPath, content);
-        } else {
-            log.warn("Raw template not found: {} → skipping repo file: {}",
-                    templatePath, repoPath);
-        }
+        files.add(new TemplateFile(repoPath, templatePath, true));
     }
 
     private String backendLabel(BackendTech tech) {
@@ -0,0 +1,198 @@
+package com.devops.platform.service;
+
+import com.devops.platform.entity.RefreshToken;
+import com.devops.platform.exception.UnauthorizedException;
+import com.devops.platform.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Refresh-токены с ротацией. Токен — {@code <id сессии>.<секрет>}, id — случайный UUID:
+ * строка ищется по первичному ключу, секрет сверяется с SHA-256 из БД (BCrypt здесь
+ * не нужен — секрет случайный, 256 бит). Каждый refresh выдаёт новый секрет и продлевает
+ * сессию на {@code ttl}. Предъявленный повторно предыдущий секрет отзывает сессию целиком;
+ * любой другой неверный секрет только отклоняется — иначе подбором id можно было бы
+ * разлогинить чужие сессии.
+ * Отзыв всех сессий пользователя — при смене пароля; короткий access-токен
+ * после этого доживает не дольше jwt.expiration.
+ * Метрика: auth.refresh{result=rotated|invalid|expired|reused}.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+    private static final int SECRET_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MeterRegistry meterRegistry;
+    private final Duration ttl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${auth.refresh-token.ttl:7d}") Duration ttl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.meterRegistry = meterRegistry;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Результат ротации: владелец сессии и новый refresh-токен.
+     */
+    public record Rotation(Long userId, String refreshToken) {
+    }
+
+    /**
+     * Новая сессия при входе или регистрации.
+     */
+    @Transactional
+    public String issue(Long userId) {
+        String secret = newSecret();
+        LocalDateTime now = LocalDateTime.now();
+        RefreshToken session = refreshTokenRepository.save(RefreshToken.builder()
+                .userId(userId)
+                .tokenHash(hash(secret))
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build());
+        return session.getId() + "." + secret;
+    }
+
+    /**
+     * Меняет секрет сессии. Отзыв при повторном использовании должен пережить
+     * исключение, поэтому UnauthorizedException не откатывает транзакцию.
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Rotation rotate(String refreshToken) {
+        ParsedToken parsed = parse(refreshToken);
+        RefreshToken session = parsed != null
+                ? refreshTokenRepository.findById(parsed.sessionId()).orElse(null)
+                : null;
+        if (session == null) {
+            throw rejected("invalid");
+        }
+
+        String presentedHash = hash(parsed.secret());
+        if (!constantTimeEquals(presentedHash, session.getTokenHash())) {
+            if (session.getPreviousTokenHash() != null
+                    && constantTimeEquals(presentedHash, session.getPreviousTokenHash())) {
+                // Предыдущий секрет уже ротирован — токен мог утечь, закрываем всю сессию
+                refreshTokenRepository.deleteById(session.getId());
+                log.warn("Refresh token reuse detected for user {}, session {} revoked",
+                        session.getUserId(), session.getId());
+                throw rejected("reused");
+            }
+            throw rejected("invalid");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (session.getExpiresAt().isBefore(now)) {
+            refreshTokenRepository.deleteById(session.getId());
+            throw rejected("expired");
+        }
+
+        String secret = newSecret();
+        if (refreshTokenRepository.rotate(session.getId(), presentedHash, hash(secret), now.plus(ttl)) == 0) {
+            // Параллельный refresh тем же токеном успел раньше: предъявленный секрет
+            // теперь предыдущий — тоже повторное использование
+            refreshTokenRepository.deleteById(session.getId());
+            throw rejected("reused");
+        }
+        count("rotated");
+        return new Rotation(session.getUserId(), session.getId() + "." + secret);
+    }
+
+    /**
+     * Выход: закрывает сессию предъявленного токена. Неизвестный токен — не ошибка.
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        ParsedToken parsed = parse(refreshToken);
+        if (parsed == null) {
+            return;
+        }
+        refreshTokenRepository.findById(parsed.sessionId())
+                .filter(session -> constantTimeEquals(hash(parsed.secret()), session.getTokenHash()))
+                .ifPresent(refreshTokenRepository::delete);
+    }
+
+    @Transactional
+    public void revokeAll(Long userId) {
+        int revoked = refreshTokenRepository.deleteByUserId(userId);
+        log.info("Revoked {} refresh sessions of user {}", revoked, userId);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-token.cleanup-ms:3600000}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired refresh sessions", deleted);
+        }
+    }
+
+    // =========================================================================
+    //  INTERNALS
+    // =========================================================================
+
+    private record ParsedToken(UUID sessionId, String secret) {
+    }
+
+    private static ParsedToken parse(String refreshToken) {
+        int dot = refreshToken == null ? -1 : refreshToken.indexOf('.');
+        if (dot <= 0 || dot == refreshToken.length() - 1) {
+            return null;
+        }
+        String sessionId = refreshToken.substring(0, dot);
+        try {
+            UUID id = UUID.fromString(sessionId);
+            // fromString принимает и сокращённые формы — нужна каноническая
+            return id.toString().equals(sessionId) ? new ParsedToken(id, refreshToken.substring(dot + 1)) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String newSecret() {
+        byte[] bytes = new byte[SECRET_BYTES];
+        random.nextBytes(bytes);
+        return BASE64.encodeToString(bytes);
+    }
+
+    private static String hash(String secret) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(secret.getBytes(StandardCharsets.US_ASCII));
+            return BASE64.encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean constantTimeEquals(String a, String b) {
+        return MessageDigest.isEqual(a.getBytes(StandardCharsets.US_ASCII), b.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private UnauthorizedException rejected(String result) {
+        count(result);
+        return new UnauthorizedException("Сессия истекла, войдите снова");
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("auth.refresh", "result", result).increment();
+    }
+}
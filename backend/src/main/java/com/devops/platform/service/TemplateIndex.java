@@ -0,0 +1,112 @@
+package com.devops.platform.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileCopyUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Индекс всех шаблонов из classpath:templates/, построенный при старте.
+ * Ключ — логический путь относительно templates/
+ * (например, gitlab-ci/java-react-docker.yml), значение — содержимое файла.
+ * После старта обращений к classpath/jar больше нет.
+ */
+@Component
+public class TemplateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateIndex.class);
+    private static final String TEMPLATES_PATH = "templates/";
+
+    private final Map<String, byte[]> templates;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TemplateIndex(MeterRegistry meterRegistry) {
+        this.templates = Collections.unmodifiableMap(loadAll());
+        log.info("Template index built: {} templates preloaded", templates.size());
+
+        Gauge.builder("templates.index.size", templates, Map::size)
+                .description("Number of preloaded templates")
+                .register(meterRegistry);
+        FunctionCounter.builder("templates.index.lookups", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("templates.index.lookups", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Содержимое шаблона или null, если такого пути нет.
+     */
+    public byte[] get(String templatePath) {
+        byte[] content = templates.get(templatePath);
+        if (content != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return content;
+    }
+
+    public boolean contains(String templatePath) {
+        return templates.containsKey(templatePath);
+    }
+
+    public Set<String> paths() {
+        return templates.keySet();
+    }
+
+    /**
+     * Обход всех шаблонов без учёта в счётчиках обращений.
+     */
+    public void forEach(BiConsumer<String, byte[]> action) {
+        templates.forEach(action);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private Map<String, byte[]> loadAll() {
+        Map<String, byte[]> result = new HashMap<>();
+        try {
+            PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+            String root = new ClassPathResource(TEMPLATES_PATH).getURL().toString();
+
+            for (Resource resource : resolver.getResources("classpath:" + TEMPLATES_PATH + "**")) {
+                if (!resource.isReadable()) {
+                    continue;
+                }
+                String url = resource.getURL().toString();
+                if (!url.startsWith(root) || url.endsWith("/")) {
+                    continue;
+                }
+                result.put(url.substring(root.length()),
+                        FileCopyUtils.copyToByteArray(resource.getInputStream()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to build template index", e);
+        }
+        return result;
+    }
+}
@@ -2,14 +2,11 @@ package com.devops.platform.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
-import org.springframework.util.FileCopyUtils;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class TemplateService {
@@ -17,50 +14,52 @@ public class TemplateService {
     private static final Logger log = LoggerFactory.getLogger(TemplateService.class);
     private static final String TEMPLATES_PATH = "templates/";
 
+    private final TemplateIndex templateIndex;
+    private final Map<String, CompiledTemplate> compiledTemplates = new ConcurrentHashMap<>();
+
+    /**
+     * Разбирает все шаблоны из индекса один раз при старте,
+     * чтобы в потоке запроса оставался только рендеринг.
+     */
+    public TemplateService(TemplateIndex templateIndex) {
+        this.templateIndex = templateIndex;
+        templateIndex.forEach((path, content) -> compiledTemplates.put(path,
+                CompiledTemplate.compile(new String(content, StandardCharsets.UTF_8))));
+        log.info("Precompiled {} templates", compiledTemplates.size());
+    }
+
     /**
-     * Загружает шаблон и заменяет плейсхолдеры.
-     * Порядок: сначала наши {{KEY}}, потом восстанавливаем Angular-интерполяцию.
+     * Загружает шаблон и заменяет плейсхолдеры {{KEY}}.
+     * Angular-интерполяция {{ '{{' }} / {{ '}}' }} разворачивается в {{ / }}.
      */
     public String loadTemplate(String templatePath, Map<String, String> variables) {
-        String content = loadTemplateRaw(templatePath);
-        if (content == null) {
+        if (templateIndex.get(templatePath) == null) {
+            log.warn("Template not found: {}{}", TEMPLATES_PATH, templatePath);
             return null;
         }
+        return compiledTemplates.get(templatePath).render(variables);
+    }
 
-        // 1. Защищаем Angular-интерполяцию: {{ message }} → __ANG_START__ message __ANG_END__
-        content = content.replace("{{ '{{' }}", "__ANG_DBL_OPEN__");
-        content = content.replace("{{ '}}' }}", "__ANG_DBL_CLOSE__");
-
-        // 2. Заменяем наши плейсхолдеры {{VARIABLE_NAME}}
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
-            content = content.replace(placeholder,
-                    entry.getValue() != null ? entry.getValue() : "");
+    public String loadTemplateRaw(String templatePath) {
+        byte[] content = templateIndex.get(templatePath);
+        if (content == null) {
+            log.warn("Template not found: {}{}", TEMPLATES_PATH, templatePath);
+            return null;
         }
-
-        // 3. Восстанавливаем Angular-интерполяцию
-        content = content.replace("__ANG_DBL_OPEN__", "{{");
-        content = content.replace("__ANG_DBL_CLOSE__", "}}");
-
-        return content;
+        return new String(content, StandardCharsets.UTF_8);
     }
 
-    public String loadTemplateRaw(String templatePath) {
-        try {
-            ClassPathResource resource = new ClassPathResource(TEMPLATES_PATH + templatePath);
-            if (!resource.exists()) {
-                log.warn("Template not found: {}{}", TEMPLATES_PATH, templatePath);
-                return null;
-            }
-            return FileCopyUtils.copyToString(
-                    new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
-        } catch (IOException e) {
-            log.error("Failed to load template {}: {}", templatePath, e.getMessage());
+    /**
+     * Разобранный шаблон для повторного рендеринга или null, если его нет.
+     */
+    public CompiledTemplate getCompiledTemplate(String templatePath) {
+        if (templateIndex.get(templatePath) == null) {
             return null;
         }
+        return compiledTemplates.get(templatePath);
     }
 
     public boolean templateExists(String templatePath) {
-        return new ClassPathResource(TEMPLATES_PATH + templatePath).exists();
+        return templateIndex.contains(templatePath);
     }
-}
\ No newline at end of file
+}
@@ -2,18 +2,46 @@ package com.devops.platform.service;
 
 import com.devops.platform.entity.User;
 import com.devops.platform.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
+    
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
     
     private final UserRepository userRepository;
     
-    public UserService(UserRepository userRepository) {
+    /**
+     * Короткоживущий кэш пользователей по id для чтения профиля.
+     * TTL = 0 — кэш выключен.
+     */
+    private final long cacheTtlMillis;
+    private final Map<Long, CachedUser> userCache;
+    
+    public UserService(UserRepository userRepository,
+                       @Value("${auth.user-cache.ttl:30s}") Duration cacheTtl,
+                       @Value("${auth.user-cache.max-size:1000}") int cacheMaxSize) {
         this.userRepository = userRepository;
+        this.cacheTtlMillis = cacheTtl.toMillis();
+        this.userCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedUser> eldest) {
+                return size() > cacheMaxSize;
+            }
+        };
     }
     
     @Override
@@ -22,6 +50,20 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + email));
     }
     
+    /**
+     * Перехеширование при входе (DaoAuthenticationProvider): вызывается, когда
+     * стоимость BCrypt в хеше отличается от auth.password.bcrypt-cost.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = findByEmail(userDetails.getUsername());
+        user.setPassword(newPassword);
+        user = userRepository.save(user);
+        evict(user.getId());
+        log.info("Password hash of user {} upgraded to the current BCrypt cost", user.getId());
+        return user;
+    }
+    
     public User findByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + email));
@@ -32,6 +74,56 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("Пользователь не найден: " + id));
     }
     
+    /**
+     * Пользователь из кэша (или из БД, если записи нет/она устарела).
+     * Возвращаемый объект общий для потоков — только для чтения;
+     * для изменений использовать {@link #findById(Long)}.
+     */
+    public User findCachedById(Long id) {
+        if (cacheTtlMillis <= 0) {
+            return findById(id);
+        }
+        long now = System.currentTimeMillis();
+        synchronized (userCache) {
+            CachedUser cached = userCache.get(id);
+            if (cached != null && cached.expiresAt() > now) {
+                return cached.user();
+            }
+        }
+        User user = findById(id);
+        synchronized (userCache) {
+            userCache.put(id, new CachedUser(user, now + cacheTtlMillis));
+        }
+        return user;
+    }
+    
+    /**
+     * Ссылка на пользователя без запроса в БД — для условий запросов по владельцу.
+     */
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+    
+    /**
+     * Сбрасывает запись кэша сразу и ещё раз после коммита текущей транзакции,
+     * чтобы параллельный запрос не успел закэшировать незакоммиченные данные.
+     */
+    public void evict(Long id) {
+        synchronized (userCache) {
+            userCache.remove(id);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronized (userCache) {
+                        userCache.remove(id);
+                    }
+                }
+            });
+        }
+    }
+    
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
@@ -43,4 +135,7 @@ public class UserService implements UserDetailsService {
     public User save(User user) {
         return userRepository.save(user);
     }
-}
\ No newline at end of file
+    
+    private record CachedUser(User user, long expiresAt) {
+    }
+}
@@ -0,0 +1,56 @@
+-- =============================================
+-- Переход с IDENTITY на последовательности (pooled, шаг 50)
+--
+-- Выполняется бэкендом при каждом старте с профилями docker и prod (spring.sql.init),
+-- до того как Hibernate начнёт выдавать id; выключается DB_INIT_MODE=never.
+-- На пустой БД ничего не делает: таблицы и *_seq создаст Hibernate.
+-- Скрипт идемпотентен, данные не меняются. Весь файл уходит в PostgreSQL
+-- одной командой (spring.sql.init.separator): Spring не разбирает $$-блоки.
+--
+-- Hibernate (pooled optimizer) считает значение последовательности верхней
+-- границей пула: nextval = N выдаёт id N-49..N. Поэтому следующее значение
+-- ставится на MAX(id) + 50 — новые id не пересекутся с существующими.
+-- Шаг можно поменять через ALTER SEQUENCE ... INCREMENT BY: бэкенд подхватит
+-- его при старте (hibernate.id.sequence.increment_size_mismatch_strategy=fix).
+-- =============================================
+
+DO $$
+DECLARE
+    t          record;
+    step       bigint := 50;
+    max_id     bigint;
+    next_value bigint;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES
+                ('users',              'users_seq'),
+                ('projects',           'projects_seq'),
+                ('pipelines',          'pipelines_seq'),
+                ('pipeline_stages',    'pipeline_stages_seq'),
+                ('provisioning_steps', 'provisioning_steps_seq')
+            ) AS v(table_name, sequence_name)
+    LOOP
+        IF to_regclass(t.table_name) IS NULL THEN
+            CONTINUE;
+        END IF;
+
+        -- id теперь присваивает приложение; старая identity-последовательность не нужна
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t.table_name);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', t.table_name);
+
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', t.table_name) INTO max_id;
+        next_value := max_id + step;
+
+        IF to_regclass(t.sequence_name) IS NULL THEN
+            EXECUTE format('CREATE SEQUENCE %I START WITH %s INCREMENT BY %s',
+                           t.sequence_name, next_value, step);
+        ELSE
+            -- Повторный запуск: не откатываем последовательность назад
+            EXECUTE format('SELECT GREATEST(%s, CASE WHEN is_called THEN last_value + %s ELSE last_value END) FROM %I',
+                           next_value, step, t.sequence_name) INTO next_value;
+            EXECUTE format('ALTER SEQUENCE %I INCREMENT BY %s', t.sequence_name, step);
+            PERFORM setval(t.sequence_name, next_value, false);
+        END IF;
+
+        RAISE NOTICE '%: max id %, next sequence value %', t.table_name, max_id, next_value;
+    END LOOP;
+END $$;
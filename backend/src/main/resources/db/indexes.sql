@@ -0,0 +1,57 @@
+-- =============================================
+-- Индексы под частые запросы репозиториев
+--
+-- Выполняется бэкендом при каждом старте с профилями docker и prod
+-- (spring.sql.init), после остальных скриптов db/ и до Hibernate.
+-- Имена совпадают с @Index/@UniqueConstraint в сущностях, поэтому
+-- ddl-auto=update их не дублирует. На пустой БД ничего не делает.
+-- Проверка планов — database/explain_hot_queries.sql.
+-- =============================================
+
+DO $$
+BEGIN
+    IF to_regclass('projects') IS NOT NULL THEN
+        -- Список проектов владельца: WHERE owner_id = ? ORDER BY created_at DESC
+        CREATE INDEX IF NOT EXISTS idx_projects_owner_created
+            ON projects (owner_id, created_at DESC);
+
+        -- Имя проекта уникально у владельца; на дубликатах миграция остановится
+        IF EXISTS (SELECT 1 FROM projects GROUP BY owner_id, name HAVING COUNT(*) > 1) THEN
+            RAISE EXCEPTION 'projects: есть проекты с одинаковым именем у одного владельца, переименуйте их';
+        END IF;
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_projects_owner_name') THEN
+            ALTER TABLE projects ADD CONSTRAINT uk_projects_owner_name UNIQUE (owner_id, name);
+        END IF;
+    END IF;
+
+    IF to_regclass('pipelines') IS NOT NULL THEN
+        -- Последний пайплайн и keyset-страницы истории
+        CREATE INDEX IF NOT EXISTS idx_pipelines_project_started
+            ON pipelines (project_id, started_at DESC, id DESC);
+        -- Выборка трекера: WHERE next_poll_at <= now() ORDER BY next_poll_at
+        CREATE INDEX IF NOT EXISTS idx_pipelines_next_poll
+            ON pipelines (next_poll_at);
+        -- Вебхуки: WHERE gitlab_pipeline_id IN (...)
+        CREATE INDEX IF NOT EXISTS idx_pipelines_gitlab_id
+            ON pipelines (gitlab_pipeline_id);
+    END IF;
+
+    IF to_regclass('pipeline_stages') IS NOT NULL THEN
+        -- PostgreSQL не индексирует внешние ключи сам
+        CREATE INDEX IF NOT EXISTS idx_pipeline_stages_pipeline
+            ON pipeline_stages (pipeline_id);
+    END IF;
+
+    IF to_regclass('provisioning_steps') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_provisioning_steps_project
+            ON provisioning_steps (project_id, step);
+    END IF;
+
+    IF to_regclass('refresh_tokens') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user
+            ON refresh_tokens (user_id);
+        -- Чистка просроченных сессий: WHERE expires_at < now()
+        CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires
+            ON refresh_tokens (expires_at);
+    END IF;
+END $$;
@@ -0,0 +1,29 @@
+-- =============================================
+-- Колонки опроса пайплайнов трекером и id джоб GitLab у стадий
+--
+-- Выполняется бэкендом при каждом старте с профилями docker и prod
+-- (spring.sql.init), до Hibernate; выключается DB_INIT_MODE=never.
+-- На пустой БД ничего не делает: таблицы создаст Hibernate.
+-- Незавершённые пайплайны, созданные до появления трекера, ставятся
+-- в очередь опроса один раз — когда колонка next_poll_at добавляется.
+-- =============================================
+
+DO $$
+BEGIN
+    IF to_regclass('pipelines') IS NULL THEN
+        RETURN;
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema()
+                     AND table_name = 'pipelines' AND column_name = 'next_poll_at') THEN
+        ALTER TABLE pipelines ADD COLUMN next_poll_at timestamp(6);
+        UPDATE pipelines SET next_poll_at = now()
+        WHERE finished_at IS NULL AND gitlab_pipeline_id IS NOT NULL;
+    END IF;
+    ALTER TABLE pipelines ADD COLUMN IF NOT EXISTS poll_interval_ms bigint;
+
+    IF to_regclass('pipeline_stages') IS NOT NULL THEN
+        ALTER TABLE pipeline_stages ADD COLUMN IF NOT EXISTS gitlab_job_id bigint;
+    END IF;
+END $$;
@@ -0,0 +1,23 @@
+-- =============================================
+-- Версия пайплайна для оптимистической блокировки (трекер против вебхуков)
+--
+-- Выполняется бэкендом при каждом старте с профилями docker и prod
+-- (spring.sql.init), до Hibernate; выключается DB_INIT_MODE=never.
+-- На пустой БД ничего не делает: таблицу создаст Hibernate.
+-- Колонка, которую раньше добавил ddl-auto=update, пуста у старых строк:
+-- пайплайн с NULL-версией Spring Data считает новым (save() вставляет
+-- его заново), а проверка версии при обновлении не работает. Поэтому
+-- NULL заменяется на 0 при каждом старте, а строкам, вставленным мимо
+-- Hibernate, 0 ставит DEFAULT.
+-- =============================================
+
+DO $$
+BEGIN
+    IF to_regclass('pipelines') IS NULL THEN
+        RETURN;
+    END IF;
+
+    ALTER TABLE pipelines ADD COLUMN IF NOT EXISTS version bigint;
+    ALTER TABLE pipelines ALTER COLUMN version SET DEFAULT 0;
+    UPDATE pipelines SET version = 0 WHERE version IS NULL;
+END $$;
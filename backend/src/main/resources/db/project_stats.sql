@@ -0,0 +1,69 @@
+-- =============================================
+-- Денормализованная статистика проектов и владельцев
+--
+-- Выполняется бэкендом при каждом старте с профилями docker и prod
+-- (spring.sql.init), до Hibernate; выключается DB_INIT_MODE=never.
+-- На пустой БД ничего не делает: таблицы создаст Hibernate.
+-- На существующей создаёт таблицы, если их ещё нет, и один раз заполняет
+-- счётчики по уже завершённым пайплайнам. Дальше их ведёт бэкенд, и
+-- повторный запуск ничего не пересчитывает.
+-- =============================================
+
+DO $$
+BEGIN
+    IF to_regclass('projects') IS NULL OR to_regclass('pipelines') IS NULL
+            OR (to_regclass('project_stats') IS NOT NULL AND to_regclass('owner_stats') IS NOT NULL) THEN
+        RETURN;
+    END IF;
+
+    CREATE TABLE IF NOT EXISTS project_stats (
+        project_id           bigint PRIMARY KEY,
+        owner_id             bigint       NOT NULL,
+        builds               bigint       NOT NULL DEFAULT 0,
+        deploys              bigint       NOT NULL DEFAULT 0,
+        successful_pipelines bigint       NOT NULL DEFAULT 0,
+        finished_pipelines   bigint       NOT NULL DEFAULT 0,
+        total_duration_ms    bigint       NOT NULL DEFAULT 0,
+        last_activity_at     timestamp(6)
+    );
+
+    CREATE TABLE IF NOT EXISTS owner_stats (
+        owner_id             bigint PRIMARY KEY,
+        projects             bigint       NOT NULL DEFAULT 0,
+        builds               bigint       NOT NULL DEFAULT 0,
+        deploys              bigint       NOT NULL DEFAULT 0,
+        successful_pipelines bigint       NOT NULL DEFAULT 0,
+        finished_pipelines   bigint       NOT NULL DEFAULT 0,
+        total_duration_ms    bigint       NOT NULL DEFAULT 0,
+        last_activity_at     timestamp(6)
+    );
+
+    INSERT INTO project_stats (project_id, owner_id, builds, deploys, successful_pipelines,
+                               finished_pipelines, total_duration_ms, last_activity_at)
+    SELECT p.id,
+           p.owner_id,
+           COUNT(pl.id) FILTER (WHERE pl.deploy_url IS NULL),
+           COUNT(pl.id) FILTER (WHERE pl.deploy_url IS NOT NULL),
+           COUNT(pl.id) FILTER (WHERE pl.status = 'SUCCESS'),
+           COUNT(pl.id),
+           COALESCE(SUM(GREATEST(0, EXTRACT(EPOCH FROM (pl.finished_at - pl.started_at)) * 1000)), 0)::bigint,
+           MAX(pl.finished_at)
+    FROM projects p
+    LEFT JOIN pipelines pl ON pl.project_id = p.id AND pl.finished_at IS NOT NULL
+    GROUP BY p.id, p.owner_id
+    ON CONFLICT (project_id) DO NOTHING;
+
+    INSERT INTO owner_stats (owner_id, projects, builds, deploys, successful_pipelines,
+                             finished_pipelines, total_duration_ms, last_activity_at)
+    SELECT owner_id,
+           COUNT(*),
+           SUM(builds),
+           SUM(deploys),
+           SUM(successful_pipelines),
+           SUM(finished_pipelines),
+           SUM(total_duration_ms),
+           MAX(last_activity_at)
+    FROM project_stats
+    GROUP BY owner_id
+    ON CONFLICT (owner_id) DO NOTHING;
+END $$;
@@ -0,0 +1,27 @@
+-- =============================================
+-- Шаги провижининга проекта
+--
+-- Выполняется бэкендом при каждом старте с профилями docker и prod
+-- (spring.sql.init), до Hibernate; выключается DB_INIT_MODE=never.
+-- На пустой БД ничего не делает: таблицу создаст Hibernate.
+-- На существующей создаёт таблицу, если её ещё нет: с ddl-auto=validate
+-- (профиль prod) её больше никто не создаст. Последовательность
+-- provisioning_steps_seq заводит id_sequences.sql.
+-- =============================================
+
+DO $$
+BEGIN
+    IF to_regclass('projects') IS NULL THEN
+        RETURN;
+    END IF;
+
+    CREATE TABLE IF NOT EXISTS provisioning_steps (
+        id            bigint PRIMARY KEY,
+        step          varchar(255)  NOT NULL,
+        status        varchar(255)  NOT NULL,
+        error_message varchar(1000),
+        started_at    timestamp(6),
+        finished_at   timestamp(6),
+        project_id    bigint        NOT NULL REFERENCES projects (id)
+    );
+END $$;
@@ -0,0 +1,35 @@
+-- =============================================
+-- Сессии refresh-токенов с id UUID вместо последовательности
+--
+-- Выполняется бэкендом при каждом старте с профилями docker и prod
+-- (spring.sql.init), до Hibernate; выключается DB_INIT_MODE=never.
+-- На пустой БД ничего не делает: таблицу создаст Hibernate.
+-- Старая таблица с bigint id удаляется вместе с refresh_tokens_seq и
+-- создаётся заново в новом виде: выданные refresh-токены перестают
+-- действовать, пользователи один раз входят заново. Таблицу создаёт скрипт,
+-- а не Hibernate: с ddl-auto=validate (профиль prod) её больше никто не создаст.
+-- Повторный запуск ничего не делает.
+-- =============================================
+
+DO $$
+BEGIN
+    IF to_regclass('users') IS NULL THEN
+        RETURN;
+    END IF;
+
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_schema = current_schema()
+          AND table_name = 'refresh_tokens' AND column_name = 'id') = 'bigint' THEN
+        DROP TABLE refresh_tokens;
+        DROP SEQUENCE IF EXISTS refresh_tokens_seq;
+    END IF;
+
+    CREATE TABLE IF NOT EXISTS refresh_tokens (
+        id                  uuid PRIMARY KEY,
+        user_id             bigint       NOT NULL,
+        token_hash          varchar(43)  NOT NULL,
+        previous_token_hash varchar(43),
+        expires_at          timestamp(6) NOT NULL,
+        created_at          timestamp(6) NOT NULL
+    );
+END $$;
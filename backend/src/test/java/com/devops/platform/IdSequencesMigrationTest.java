@@ -0,0 +1,117 @@
+package com.devops.platform;
+
+import com.devops.platform.entity.User;
+import com.devops.platform.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * db/id_sequences.sql на настоящем PostgreSQL: профиль docker выполняет его при старте
+ * (spring.sql.init) до Hibernate. БД заранее содержит таблицу users в старом виде —
+ * id IDENTITY и уже выданные идентификаторы.
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.devops.platform=INFO",
+        "pipelines.tracker.tick-ms=3600000",
+        "provisioning.recovery.initial-delay-ms=3600000"
+})
+@ActiveProfiles({"docker", "fake-gitlab"})
+class IdSequencesMigrationTest {
+
+    private static final long LEGACY_USERS = 120;
+
+    private static EmbeddedPostgres postgres;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException, SQLException {
+        postgres = EmbeddedPostgres.start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE users (
+                        id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                        username varchar(255) NOT NULL UNIQUE,
+                        email varchar(255) NOT NULL UNIQUE,
+                        password varchar(255) NOT NULL,
+                        gitlab_user_id bigint,
+                        gitlab_username varchar(255),
+                        created_at timestamp(6),
+                        updated_at timestamp(6))""");
+            statement.execute("""
+                    INSERT INTO users (username, email, password)
+                    SELECT 'legacy' || n, 'legacy' || n || '@test', 'x'
+                    FROM generate_series(1, %d) AS n""".formatted(LEGACY_USERS));
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        try (ServerSocket socket = new ServerSocket(0)) {
+            int port = socket.getLocalPort();
+            registry.add("fake-gitlab.port", () -> port);
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void startupMovesIdsToSequence() {
+        String identity = jdbcTemplate.queryForObject(
+                "SELECT attidentity::text FROM pg_attribute " +
+                "WHERE attrelid = 'users'::regclass AND attname = 'id'", String.class);
+        assertThat(identity).isEmpty();
+
+        User user = userRepository.save(User.builder()
+                .username("after-migration")
+                .email("after-migration@test")
+                .password("x")
+                .build());
+        assertThat(user.getId()).isGreaterThan(LEGACY_USERS);
+    }
+
+    @Test
+    void rerunDoesNotMoveSequenceBack() {
+        long before = usersSequenceValue();
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(
+                new ClassPathResource("db/id_sequences.sql"));
+        populator.setSeparator(ScriptUtils.EOF_STATEMENT_SEPARATOR);
+        populator.execute(dataSource);
+
+        assertThat(usersSequenceValue()).isGreaterThanOrEqualTo(before);
+    }
+
+    private long usersSequenceValue() {
+        return jdbcTemplate.queryForObject("SELECT last_value FROM users_seq", Long.class);
+    }
+}
@@ -0,0 +1,159 @@
+package com.devops.platform;
+
+import com.devops.platform.entity.Pipeline;
+import com.devops.platform.repository.PipelineRepository;
+import com.devops.platform.service.PipelineTracker;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Скрипты db/ на настоящем PostgreSQL с профилем prod: ddl-auto=validate, схему
+ * никто, кроме скриптов, не меняет. БД заранее содержит таблицы в исходном виде —
+ * id IDENTITY, без версии и колонок трекера, без статистики, шагов провижининга
+ * и refresh-токенов; бэкенд должен подняться на ней и не потерять данные.
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.devops.platform=INFO",
+        "pipelines.tracker.tick-ms=3600000",
+        "provisioning.recovery.initial-delay-ms=3600000"
+})
+@ActiveProfiles({"prod", "fake-gitlab"})
+class SchemaMigrationTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException, SQLException {
+        postgres = EmbeddedPostgres.start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TABLE users (
+                        id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                        username varchar(255) NOT NULL UNIQUE,
+                        email varchar(255) NOT NULL UNIQUE,
+                        password varchar(255) NOT NULL,
+                        gitlab_user_id bigint,
+                        gitlab_username varchar(255),
+                        created_at timestamp(6),
+                        updated_at timestamp(6))""");
+            statement.execute("""
+                    CREATE TABLE projects (
+                        id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                        name varchar(255) NOT NULL,
+                        description varchar(1000),
+                        status varchar(255) NOT NULL,
+                        backend_tech varchar(255),
+                        frontend_tech varchar(255),
+                        database_tech varchar(255),
+                        use_docker boolean,
+                        gitlab_project_id bigint,
+                        gitlab_url varchar(255),
+                        git_clone_url varchar(255),
+                        deploy_url varchar(255),
+                        owner_id bigint NOT NULL REFERENCES users (id),
+                        created_at timestamp(6),
+                        updated_at timestamp(6))""");
+            statement.execute("""
+                    CREATE TABLE pipelines (
+                        id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                        gitlab_pipeline_id bigint,
+                        status varchar(255) NOT NULL,
+                        deploy_url varchar(255),
+                        started_at timestamp(6),
+                        finished_at timestamp(6),
+                        project_id bigint NOT NULL REFERENCES projects (id))""");
+            statement.execute("""
+                    CREATE TABLE pipeline_stages (
+                        id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                        name varchar(255) NOT NULL,
+                        status varchar(255) NOT NULL,
+                        pipeline_id bigint NOT NULL REFERENCES pipelines (id))""");
+            statement.execute("""
+                    INSERT INTO users (username, email, password) VALUES ('legacy', 'legacy@test', 'x');
+                    INSERT INTO projects (name, status, owner_id, created_at)
+                    VALUES ('legacy', 'ACTIVE', 1, now() - interval '1 day');
+                    INSERT INTO pipelines (gitlab_pipeline_id, status, deploy_url, started_at, finished_at, project_id)
+                    VALUES (100, 'SUCCESS', 'http://legacy.apps.local',
+                            now() - interval '2 hours', now() - interval '2 hours' + interval '90 seconds', 1),
+                           (101, 'RUNNING', NULL, now() - interval '1 minute', NULL, 1)""");
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        try (ServerSocket socket = new ServerSocket(0)) {
+            int port = socket.getLocalPort();
+            registry.add("fake-gitlab.port", () -> port);
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    /** Первый тик трекера сразу опросил бы незавершённый пайплайн и поменял данные. */
+    @MockBean
+    private PipelineTracker pipelineTracker;
+
+    @Autowired
+    private PipelineRepository pipelineRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void existingPipelinesGetVersionAndUnfinishedOnesArePolled() {
+        // С версией 0, а не NULL, Spring Data обновляет пайплайн, а не вставляет его заново
+        assertThat(pipelineRepository.findAll()).extracting(Pipeline::getVersion)
+                .containsOnly(0L);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT gitlab_pipeline_id FROM pipelines WHERE next_poll_at IS NOT NULL", Long.class))
+                .containsExactly(101L);
+    }
+
+    @Test
+    void statsAreBackfilledFromFinishedPipelines() {
+        Map<String, Object> stats = jdbcTemplate.queryForMap(
+                "SELECT builds, deploys, successful_pipelines, finished_pipelines, total_duration_ms " +
+                "FROM project_stats WHERE project_id = 1");
+
+        assertThat(stats).containsEntry("builds", 0L)
+                .containsEntry("deploys", 1L)
+                .containsEntry("successful_pipelines", 1L)
+                .containsEntry("finished_pipelines", 1L)
+                .containsEntry("total_duration_ms", 90_000L);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT projects FROM owner_stats WHERE owner_id = 1", Long.class)).isEqualTo(1L);
+    }
+
+    @Test
+    void indexesAndNewTablesExist() {
+        assertThat(jdbcTemplate.queryForList("SELECT indexname FROM pg_indexes", String.class))
+                .contains("idx_projects_owner_created", "uk_projects_owner_name",
+                        "idx_pipelines_project_started", "idx_pipelines_next_poll", "idx_pipelines_gitlab_id",
+                        "idx_pipeline_stages_pipeline", "idx_provisioning_steps_project",
+                        "idx_refresh_tokens_user", "idx_refresh_tokens_expires");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT data_type FROM information_schema.columns " +
+                "WHERE table_name = 'refresh_tokens' AND column_name = 'id'", String.class))
+                .isEqualTo("uuid");
+    }
+}
@@ -0,0 +1,75 @@
+package com.devops.platform.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * Actuator на отдельном порту management: health и метрики отдаются там без токена,
+ * на порту приложения метрик нет.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.server.port=0",
+        "logging.level.com.devops.platform=INFO",
+        "pipelines.tracker.tick-ms=3600000",
+        "gitlab.webhook.flush-ms=3600000",
+        "auth.refresh-token.cleanup-ms=3600000",
+        "provisioning.recovery.initial-delay-ms=3600000"
+})
+// Без неё экспорт метрик в тестах выключен и /actuator/prometheus не регистрируется
+@AutoConfigureObservability
+@ActiveProfiles({"dev", "fake-gitlab"})
+class ActuatorSecurityTest {
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @DynamicPropertySource
+    static void fakeGitLabPort(DynamicPropertyRegistry registry) throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            int port = socket.getLocalPort();
+            registry.add("fake-gitlab.port", () -> port);
+        }
+    }
+
+    @Test
+    void managementPortServesHealthAndMetrics() {
+        assertThat(get(managementPort, "/actuator/health")).isEqualTo(200);
+        assertThat(get(managementPort, "/actuator/prometheus")).isEqualTo(200);
+        assertThat(get(managementPort, "/actuator/metrics")).isEqualTo(200);
+    }
+
+    @Test
+    void applicationPortDoesNotExposeActuator() {
+        assertThat(managementPort).isNotEqualTo(serverPort);
+        assertThat(get(serverPort, "/actuator/prometheus")).isIn(401, 403, 404);
+        assertThat(get(serverPort, "/actuator/metrics")).isIn(401, 403, 404);
+    }
+
+    private int get(int port, String path) {
+        try {
+            return restTemplate.getForEntity("http://localhost:" + port + path, String.class)
+                    .getStatusCode().value();
+        } catch (HttpStatusCodeException e) {
+            return e.getStatusCode().value();
+        }
+    }
+}
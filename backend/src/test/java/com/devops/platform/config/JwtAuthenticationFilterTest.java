@@ -0,0 +1,90 @@
+package com.devops.platform.config;
+
+import com.devops.platform.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Исход аутентификации по токену в auth.jwt.filter{result}: просроченный токен —
+ * штатный expired, а не error; токен с чужой подписью остаётся ошибкой.
+ * Запрос в обоих случаях идёт дальше по цепочке без аутентификации.
+ */
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "bXlTZWNyZXRLZXlGb3JKV1RUb2tlbkdlbmVyYXRpb25UaGF0SXNBdExlYXN0MjU2Qml0c0xvbmcxMjM0NTY=";
+    private static final String OTHER_SECRET = "b3RoZXJTZWNyZXRLZXlGb3JKV1RUb2tlbkdlbmVyYXRpb25UaGF0SXNMb25nRW5vdWdoMTIzNDU2Nzg5MA==";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserDetails user = User.withUsername("user@test").password("x").roles("USER").build();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validTokenAuthenticates() throws Exception {
+        JwtService jwtService = jwtService(SECRET, 60_000);
+
+        filter(jwtService, jwtService.generateToken(user));
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        assertThat(count("authenticated")).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokenIsCountedAsExpired() throws Exception {
+        JwtService jwtService = jwtService(SECRET, -60_000);
+
+        MockFilterChain chain = filter(jwtService, jwtService.generateToken(user));
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(count("expired")).isEqualTo(1);
+        assertThat(count("error")).isZero();
+    }
+
+    @Test
+    void foreignSignatureIsCountedAsError() throws Exception {
+        String foreignToken = jwtService(OTHER_SECRET, 60_000).generateToken(user);
+
+        MockFilterChain chain = filter(jwtService(SECRET, 60_000), foreignToken);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        assertThat(count("error")).isEqualTo(1);
+        assertThat(count("expired")).isZero();
+    }
+
+    private MockFilterChain filter(JwtService jwtService, String token) throws Exception {
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(user.getUsername())).thenReturn(user);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userDetailsService, meterRegistry);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/projects");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return chain;
+    }
+
+    private JwtService jwtService(String secret, long expiration) {
+        return new JwtService(secret, expiration, 100, meterRegistry);
+    }
+
+    private long count(String result) {
+        return meterRegistry.get("auth.jwt.filter").tag("result", result).timer().count();
+    }
+}
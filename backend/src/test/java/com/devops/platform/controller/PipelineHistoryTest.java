@@ -0,0 +1,202 @@
+package com.devops.platform.controller;
+
+import com.devops.platform.entity.Pipeline;
+import com.devops.platform.entity.Project;
+import com.devops.platform.entity.User;
+import com.devops.platform.entity.enums.PipelineStatus;
+import com.devops.platform.entity.enums.ProjectStatus;
+import com.devops.platform.repository.PipelineRepository;
+import com.devops.platform.repository.ProjectRepository;
+import com.devops.platform.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Keyset-пагинация GET /api/projects/{id}/pipeline/history: обход по nextCursor
+ * отдаёт каждый пайплайн ровно один раз, в том числе при одинаковом startedAt
+ * (порядок тогда задаёт id); размер страницы ограничен max-page-size;
+ * испорченный курсор — 400, а не 500.
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.devops.platform=INFO",
+        "auth.password.bcrypt-cost=4",
+        "pipelines.history.default-page-size=2",
+        "pipelines.history.max-page-size=3",
+        "pipelines.tracker.tick-ms=3600000",
+        "gitlab.webhook.flush-ms=3600000",
+        "auth.refresh-token.cleanup-ms=3600000",
+        "provisioning.recovery.initial-delay-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "fake-gitlab"})
+class PipelineHistoryTest {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    @DynamicPropertySource
+    static void fakeGitLabPort(DynamicPropertyRegistry registry) throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            int port = socket.getLocalPort();
+            registry.add("fake-gitlab.port", () -> port);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private PipelineRepository pipelineRepository;
+
+    private String token;
+    private Project project;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String username = "history" + SEQUENCE.incrementAndGet();
+        String email = username + "@history.test";
+        token = body(mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"username":"%s","email":"%s","password":"secret123"}""".formatted(username, email)))
+                .andExpect(status().isOk())
+                .andReturn()).get("token").asText();
+
+        User owner = userRepository.findByEmail(email).orElseThrow();
+        project = projectRepository.save(Project.builder()
+                .name(username)
+                .status(ProjectStatus.ACTIVE)
+                .owner(owner)
+                .build());
+    }
+
+    @Test
+    void cursorWalksAllPagesNewestFirst() throws Exception {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(0, pipeline(START.plusMinutes(i)).getId());
+        }
+
+        assertThat(walk()).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void equalStartedAtIsOrderedByIdAcrossPages() throws Exception {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(0, pipeline(START).getId());
+        }
+        Long older = pipeline(START.minusMinutes(1)).getId();
+        expected.add(older);
+
+        // Граница каждой страницы приходится на одинаковый startedAt
+        assertThat(walk()).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void pageSizeIsCappedByMaxPageSize() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            pipeline(START.plusMinutes(i));
+        }
+
+        JsonNode page = history(null, 50);
+
+        assertThat(page.get("items")).hasSize(3);
+        assertThat(page.hasNonNull("nextCursor")).isTrue();
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        String noSeparator = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("not-a-cursor".getBytes(StandardCharsets.UTF_8));
+        String badDate = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("yesterday|1".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("%%%", noSeparator, badDate)) {
+            mockMvc.perform(authorized(get(historyUrl()).param("cursor", cursor)))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    // =========================================================================
+    //  HELPERS
+    // =========================================================================
+
+    private List<Long> walk() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = history(cursor, null);
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+        return ids;
+    }
+
+    private JsonNode history(String cursor, Integer size) throws Exception {
+        MockHttpServletRequestBuilder request = get(historyUrl());
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        if (size != null) {
+            request.param("size", size.toString());
+        }
+        return body(mockMvc.perform(authorized(request))
+                .andExpect(status().isOk())
+                .andReturn());
+    }
+
+    private Pipeline pipeline(LocalDateTime startedAt) {
+        return pipelineRepository.save(Pipeline.builder()
+                .project(project)
+                .status(PipelineStatus.SUCCESS)
+                .startedAt(startedAt)
+                .finishedAt(startedAt.plusMinutes(1))
+                .build());
+    }
+
+    private String historyUrl() {
+        return "/api/projects/" + project.getId() + "/pipeline/history";
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+
+    private static JsonNode body(MvcResult result) throws Exception {
+        return JSON.readTree(result.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,311 @@
+package com.devops.platform.controller;
+
+import com.devops.platform.entity.enums.ProjectStatus;
+import com.devops.platform.repository.ProjectRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL-запросов (Hibernate Statistics.getPrepareStatementCount()) на каждый
+ * эндпоинт контроллеров. Рост числа — признак N+1 или лишней загрузки; если запрос
+ * добавлен осознанно, ожидание в тесте меняется вместе с кодом.
+ * GitLab — встроенный FakeGitLabServer, фоновое создание проекта выполняется
+ * тестом явно, чтобы его запросы не смешивались с запросами эндпоинта.
+ * Выборки из id-последовательностей не считаются: пул из 50 идентификаторов
+ * кончается в разных тестах в зависимости от порядка их запуска.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.devops.platform.controller.QueryCountTest$SequenceCalls",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.devops.platform=INFO",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "auth.password.bcrypt-cost=4",
+        "gitlab.webhook.secret=query-count",
+        "fake-gitlab.latency=0ms",
+        "fake-gitlab.latency-jitter=0ms",
+        // Фоновые задачи с запросами к БД не должны попадать в счётчик
+        "pipelines.tracker.tick-ms=3600000",
+        "gitlab.webhook.flush-ms=3600000",
+        "auth.refresh-token.cleanup-ms=3600000",
+        "provisioning.recovery.initial-delay-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "fake-gitlab"})
+class QueryCountTest {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @DynamicPropertySource
+    static void fakeGitLabPort(DynamicPropertyRegistry registry) throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            int port = socket.getLocalPort();
+            registry.add("fake-gitlab.port", () -> port);
+        }
+    }
+
+    @MockBean(name = "provisioningExecutor")
+    private TaskExecutor provisioningExecutor;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    private final List<Runnable> provisioningTasks = new ArrayList<>();
+    private Statistics statistics;
+    private String email;
+    private String token;
+    private String refreshToken;
+    private long projectId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        doAnswer(invocation -> provisioningTasks.add(invocation.getArgument(0)))
+                .when(provisioningExecutor).execute(any());
+
+        String username = "qc" + SEQUENCE.incrementAndGet();
+        email = username + "@query.count";
+        JsonNode auth = body(mockMvc.perform(json(post("/api/auth/register"), """
+                        {"username":"%s","email":"%s","password":"secret123"}""".formatted(username, email)))
+                .andExpect(status().isOk())
+                .andReturn());
+        token = auth.get("token").asText();
+        refreshToken = auth.get("refreshToken").asText();
+
+        JsonNode project = body(mockMvc.perform(authorized(json(post("/api/projects"), """
+                        {"name":"%s","stack":{"backend":"java","frontend":"react","database":"postgres","useDocker":true}}"""
+                        .formatted(username))))
+                .andExpect(status().isAccepted())
+                .andReturn());
+        projectId = project.get("id").asLong();
+        runProvisioning();
+        assertThat(projectRepository.findById(projectId).orElseThrow().getStatus())
+                .isEqualTo(ProjectStatus.ACTIVE);
+    }
+
+    // =========================================================================
+    //  AUTH
+    // =========================================================================
+
+    @Test
+    void register() throws Exception {
+        assertQueries(5, json(post("/api/auth/register"), """
+                {"username":"qc-new%d","email":"qc-new%d@query.count","password":"secret123"}"""
+                .formatted(SEQUENCE.incrementAndGet(), SEQUENCE.get())), status().isOk());
+    }
+
+    @Test
+    void login() throws Exception {
+        assertQueries(3, json(post("/api/auth/login"), """
+                {"email":"%s","password":"secret123"}""".formatted(email)), status().isOk());
+    }
+
+    @Test
+    void refresh() throws Exception {
+        assertQueries(3, json(post("/api/auth/refresh"), """
+                {"refreshToken":"%s"}""".formatted(refreshToken)), status().isOk());
+    }
+
+    @Test
+    void logout() throws Exception {
+        assertQueries(2, json(post("/api/auth/logout"), """
+                {"refreshToken":"%s"}""".formatted(refreshToken)), status().isOk());
+    }
+
+    @Test
+    void me() throws Exception {
+        assertQueries(0, authorized(get("/api/auth/me")), status().isOk());
+    }
+
+    @Test
+    void updateProfile() throws Exception {
+        assertQueries(3, authorized(json(put("/api/auth/profile"), """
+                {"username":"qc-renamed%d"}""".formatted(SEQUENCE.incrementAndGet()))), status().isOk());
+    }
+
+    @Test
+    void changePassword() throws Exception {
+        assertQueries(3, authorized(json(put("/api/auth/password"), """
+                {"currentPassword":"secret123","newPassword":"secret456"}""")), status().isOk());
+    }
+
+    // =========================================================================
+    //  PROJECTS
+    // =========================================================================
+
+    @Test
+    void listProjects() throws Exception {
+        assertQueries(1, authorized(get("/api/projects")), status().isOk());
+    }
+
+    @Test
+    void getProject() throws Exception {
+        assertQueries(1, authorized(get("/api/projects/" + projectId)), status().isOk());
+    }
+
+    @Test
+    void createProject() throws Exception {
+        assertQueries(7, authorized(json(post("/api/projects"), """
+                {"name":"second","stack":{"backend":"python","frontend":"vue","database":"postgres","useDocker":false}}""")),
+                status().isAccepted());
+    }
+
+    @Test
+    void provisioningStatus() throws Exception {
+        assertQueries(1, authorized(get("/api/projects/" + projectId + "/provisioning")), status().isOk());
+    }
+
+    @Test
+    void deleteProject() throws Exception {
+        assertQueries(10, authorized(delete("/api/projects/" + projectId)), status().isOk());
+    }
+
+    @Test
+    void gitlabInfo() throws Exception {
+        assertQueries(1, authorized(get("/api/projects/" + projectId + "/gitlab")), status().isOk());
+    }
+
+    @Test
+    void projectStats() throws Exception {
+        assertQueries(1, authorized(get("/api/projects/" + projectId + "/stats")), status().isOk());
+    }
+
+    @Test
+    void dashboard() throws Exception {
+        assertQueries(1, authorized(get("/api/projects/dashboard")), status().isOk());
+    }
+
+    // =========================================================================
+    //  PIPELINES
+    // =========================================================================
+
+    @Test
+    void triggerBuild() throws Exception {
+        assertQueries(7, authorized(post("/api/projects/" + projectId + "/build")), status().isOk());
+    }
+
+    @Test
+    void triggerDeploy() throws Exception {
+        assertQueries(9, authorized(post("/api/projects/" + projectId + "/deploy")), status().isOk());
+    }
+
+    @Test
+    void triggerSonar() throws Exception {
+        assertQueries(4, authorized(post("/api/projects/" + projectId + "/sonar")), status().isOk());
+    }
+
+    @Test
+    void latestPipeline() throws Exception {
+        triggerBuildForSetup();
+        assertQueries(2, authorized(get("/api/projects/" + projectId + "/pipeline")), status().isOk());
+    }
+
+    @Test
+    void pipelineHistory() throws Exception {
+        triggerBuildForSetup();
+        triggerBuildForSetup();
+        assertQueries(3, authorized(get("/api/projects/" + projectId + "/pipeline/history")), status().isOk());
+    }
+
+    @Test
+    void gitlabWebhook() throws Exception {
+        // Событие только ставится в очередь, в БД его пишет фоновый flush (в тесте выключен)
+        assertQueries(0, json(post("/api/webhooks/gitlab"), """
+                {"object_kind":"pipeline","object_attributes":{"id":1,"status":"running"}}""")
+                .header("X-Gitlab-Token", "query-count"), status().isAccepted());
+    }
+
+    // =========================================================================
+    //  HELPERS
+    // =========================================================================
+
+    private void assertQueries(long expected, MockHttpServletRequestBuilder request,
+                               ResultMatcher expectedStatus) throws Exception {
+        statistics.clear();
+        SequenceCalls.COUNT.set(0);
+        mockMvc.perform(request).andExpect(expectedStatus);
+        assertThat(statistics.getPrepareStatementCount() - SequenceCalls.COUNT.get())
+                .as("SQL statements").isEqualTo(expected);
+    }
+
+    private void triggerBuildForSetup() throws Exception {
+        mockMvc.perform(authorized(post("/api/projects/" + projectId + "/build")))
+                .andExpect(status().isOk());
+    }
+
+    private void runProvisioning() {
+        List<Runnable> tasks = new ArrayList<>(provisioningTasks);
+        provisioningTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    private static JsonNode body(MvcResult result) throws Exception {
+        return JSON.readTree(result.getResponse().getContentAsString());
+    }
+
+    /**
+     * Считает выборки из последовательностей (select next value for ...).
+     */
+    public static class SequenceCalls implements StatementInspector {
+
+        static final AtomicLong COUNT = new AtomicLong();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.contains("next value for")) {
+                COUNT.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.devops.platform.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Планы частых запросов репозиториев на PostgreSQL: схема создаётся Hibernate
+ * из @Index/@UniqueConstraint сущностей (профиль docker); в плане каждого запроса
+ * должен быть ожидаемый индекс (Index Scan, Index Only Scan или Bitmap Index Scan).
+ * Таблицы пустые, поэтому Seq Scan запрещён —
+ * проверяется, что индекс подходит запросу, а не выбор планировщика на реальных объёмах.
+ * Те же запросы для ручной проверки — database/explain_hot_queries.sql.
+ */
+@SpringBootTest(properties = {
+        "logging.level.com.devops.platform=INFO",
+        "pipelines.tracker.tick-ms=3600000",
+        "provisioning.recovery.initial-delay-ms=3600000"
+})
+@ActiveProfiles({"docker", "fake-gitlab"})
+class HotQueryPlanTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        try (ServerSocket socket = new ServerSocket(0)) {
+            int port = socket.getLocalPort();
+            registry.add("fake-gitlab.port", () -> port);
+        }
+    }
+
+    @AfterAll
+    static void stopDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("ProjectRepository.findByOwnerOrderByCreatedAtDesc", "idx_projects_owner_created",
+                        "SELECT * FROM projects WHERE owner_id = 1 ORDER BY created_at DESC"),
+                // Оба индекса уникальны и дают не больше одной строки
+                Arguments.of("ProjectRepository.findByIdAndOwner", "projects_pkey|uk_projects_owner_name",
+                        "SELECT * FROM projects WHERE id = 1 AND owner_id = 1"),
+                Arguments.of("ProjectService.createProject, имя у владельца", "uk_projects_owner_name",
+                        "SELECT 1 FROM projects WHERE owner_id = 1 AND name = 'demo'"),
+                Arguments.of("PipelineRepository.findHistory / findLatestWithStages", "idx_pipelines_project_started",
+                        "SELECT id FROM pipelines WHERE project_id = 1 ORDER BY started_at DESC, id DESC LIMIT 21"),
+                Arguments.of("PipelineRepository.findHistoryAfter", "idx_pipelines_project_started",
+                        "SELECT id FROM pipelines WHERE project_id = 1 "
+                                + "AND (started_at < now() OR (started_at = now() AND id < 100)) "
+                                + "ORDER BY started_at DESC, id DESC LIMIT 21"),
+                Arguments.of("PipelineRepository.findDueForPolling", "idx_pipelines_next_poll",
+                        "SELECT id FROM pipelines WHERE next_poll_at <= now() ORDER BY next_poll_at LIMIT 100"),
+                Arguments.of("PipelineRepository.findAllWithStagesByGitlabPipelineIdIn", "idx_pipelines_gitlab_id",
+                        "SELECT id FROM pipelines WHERE gitlab_pipeline_id IN (1, 2, 3)"),
+                Arguments.of("PipelineStageRepository.findSummariesByPipelineIdIn", "idx_pipeline_stages_pipeline",
+                        "SELECT pipeline_id, name, status FROM pipeline_stages WHERE pipeline_id IN (1, 2, 3)"),
+                Arguments.of("ProvisioningStepRepository.findByProjectIdAndStep", "idx_provisioning_steps_project",
+                        "SELECT * FROM provisioning_steps WHERE project_id = 1 AND step = 'PUSH_FILES'"),
+                Arguments.of("ProvisioningStepRepository.findByProjectIdOrderByIdAsc", "idx_provisioning_steps_project",
+                        "SELECT * FROM provisioning_steps WHERE project_id = 1 ORDER BY id"),
+                Arguments.of("ProjectStatsRepository.findByProjectIdAndOwnerId", "project_stats_pkey",
+                        "SELECT * FROM project_stats WHERE project_id = 1 AND owner_id = 1"),
+                Arguments.of("OwnerStatsRepository.addProjects", "owner_stats_pkey",
+                        "UPDATE owner_stats SET projects = projects + 1 WHERE owner_id = 1"),
+                Arguments.of("RefreshTokenRepository.deleteByUserId", "idx_refresh_tokens_user",
+                        "DELETE FROM refresh_tokens WHERE user_id = 1"),
+                Arguments.of("RefreshTokenRepository.deleteExpired", "idx_refresh_tokens_expires",
+                        "DELETE FROM refresh_tokens WHERE expires_at < now()"),
+                Arguments.of("UserRepository.findByEmail", "unique(email)",
+                        "SELECT * FROM users WHERE email = 'test@example.com'"));
+    }
+
+    @ParameterizedTest(name = "{0} -> {1}")
+    @MethodSource("hotQueries")
+    void hotQueryUsesIndex(String query, String index, String sql) {
+        String expectedIndex = index.equals("unique(email)") ? emailIndex() : index;
+
+        List<String> plan = jdbcTemplate.execute((ConnectionCallback<List<String>>) connection -> {
+            List<String> lines = new ArrayList<>();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                try (ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+                    while (rows.next()) {
+                        lines.add(rows.getString(1));
+                    }
+                } finally {
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+            return lines;
+        });
+
+        assertThat(String.join("\n", plan))
+                .as("план %s", query)
+                .containsPattern(" (using|on) (" + expectedIndex + ") ")
+                .doesNotContain("Seq Scan");
+    }
+
+    /**
+     * Имя уникального индекса по email генерирует Hibernate.
+     */
+    private String emailIndex() {
+        return jdbcTemplate.queryForObject(
+                "SELECT indexname FROM pg_indexes WHERE tablename = 'users' "
+                        + "AND indexdef LIKE 'CREATE UNIQUE INDEX % (email)'", String.class);
+    }
+}
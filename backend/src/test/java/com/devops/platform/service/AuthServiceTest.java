@@ -0,0 +1,53 @@
+package com.devops.platform.service;
+
+import com.devops.platform.dto.request.RegisterRequest;
+import com.devops.platform.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Регистрация не ждёт GitLab дольше gitlab.timeouts.user-create: по таймауту запрос
+ * отменяется и пользователь создаётся без GitLab, как при ошибке GitLab.
+ */
+class AuthServiceTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final GitLabClient gitLabClient = mock(GitLabClient.class);
+
+    private final AuthService authService = new AuthService(userService,
+            mock(JwtService.class),
+            mock(PasswordEncoder.class),
+            mock(AuthenticationManager.class),
+            gitLabClient,
+            mock(RefreshTokenService.class),
+            mock(ProjectStatsService.class),
+            Duration.ofMillis(100));
+
+    @Test
+    void hangingGitLabDoesNotBlockRegistration() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        when(gitLabClient.createUser(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(Mono.<GitLabService.GitLabUserInfo>never().doOnCancel(() -> cancelled.set(true)));
+        when(userService.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        long startedAt = System.nanoTime();
+        authService.register(new RegisterRequest("slow", "slow@test", "secret123"));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(Duration.ofSeconds(5));
+        assertThat(cancelled).isTrue();
+        verify(userService).save(argThat((User user) -> user.getGitlabUserId() == null));
+    }
+}
@@ -0,0 +1,252 @@
+package com.devops.platform.service;
+
+import com.devops.platform.config.GitLabConfig;
+import com.devops.platform.exception.GitLabUnavailableException;
+import com.devops.platform.fakegitlab.FakeGitLabServer;
+import com.devops.platform.fakegitlab.FakeGitLabServer.Settings;
+import com.devops.platform.service.GitLabResilience.CircuitState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link GitLabResilience} в составе {@link GitLabService} и {@link GitLabClient}
+ * против {@link FakeGitLabServer} с внедрёнными ошибками и задержкой:
+ * GET повторяются, записи — нет; размыкатель открывается по доле сбоев;
+ * bulkhead отклоняет вызовы сверх лимита на операцию.
+ * Число обращений к GitLab — таймер gitlab.calls, он пишет сэмпл на каждую попытку.
+ */
+class GitLabResilienceTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int MAX_CONCURRENT_CALLS = 2;
+    private static final int MINIMUM_CALLS = 4;
+    private static final Map<String, String> FILES = Map.of("README.md", "# demo");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FakeGitLabServer server;
+    private GitLabResilience resilience;
+    private GitLabService service;
+    private GitLabClient client;
+    private ExecutorService executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        server.stop();
+    }
+
+    // =========================================================================
+    //  RETRY
+    // =========================================================================
+
+    @Test
+    void blockingGetIsRetriedOnServerError() throws IOException {
+        start(1.0, Duration.ZERO);
+
+        assertThatThrownBy(() -> service.getPipelineStatus(1L, 1L))
+                .isInstanceOf(HttpServerErrorException.ServiceUnavailable.class);
+
+        assertThat(attempts("getPipeline")).isEqualTo(MAX_ATTEMPTS);
+        assertThat(retries("getPipeline")).isEqualTo(MAX_ATTEMPTS - 1);
+    }
+
+    @Test
+    void blockingWritesAreNotRetried() throws IOException {
+        start(1.0, Duration.ZERO);
+
+        assertThatThrownBy(() -> service.triggerPipeline(1L, "main", Map.of()))
+                .isInstanceOf(HttpServerErrorException.ServiceUnavailable.class);
+        assertThatThrownBy(() -> service.commitFiles(1L, FILES, "init"))
+                .isInstanceOf(HttpServerErrorException.ServiceUnavailable.class);
+
+        assertThat(attempts("triggerPipeline")).isEqualTo(1);
+        assertThat(attempts("commitFiles")).isEqualTo(1);
+        assertThat(retries("triggerPipeline") + retries("commitFiles")).isZero();
+    }
+
+    @Test
+    void reactiveGetIsRetriedOnServerError() throws IOException {
+        start(1.0, Duration.ZERO);
+
+        assertThatThrownBy(() -> client.getPipeline(1L, 1L).block())
+                .isInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+
+        assertThat(attempts("getPipeline")).isEqualTo(MAX_ATTEMPTS);
+        assertThat(retries("getPipeline")).isEqualTo(MAX_ATTEMPTS - 1);
+    }
+
+    @Test
+    void reactiveWritesAreNotRetried() throws IOException {
+        start(1.0, Duration.ZERO);
+
+        assertThatThrownBy(() -> client.triggerPipeline(1L, "main", Map.of()).block())
+                .hasCauseInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+        assertThatThrownBy(() -> client.commitFiles(1L, FILES, "init").block())
+                .hasCauseInstanceOf(WebClientResponseException.ServiceUnavailable.class);
+
+        assertThat(attempts("triggerPipeline")).isEqualTo(1);
+        assertThat(attempts("commitFiles")).isEqualTo(1);
+        assertThat(retries("triggerPipeline") + retries("commitFiles")).isZero();
+    }
+
+    @Test
+    void clientErrorIsNotRetried() throws IOException {
+        start(0, Duration.ZERO);
+
+        // Пайплайна нет — 404, это ответ GitLab, а не сбой
+        assertThatThrownBy(() -> service.getPipelineStatus(1L, 1L))
+                .isInstanceOf(HttpClientErrorException.NotFound.class);
+
+        assertThat(attempts("getPipeline")).isEqualTo(1);
+        assertThat(resilience.snapshot().windowFailures()).isZero();
+    }
+
+    // =========================================================================
+    //  CIRCUIT BREAKER
+    // =========================================================================
+
+    @Test
+    void circuitOpensAndRejectsCallsWithoutReachingGitLab() throws IOException {
+        start(1.0, Duration.ZERO);
+
+        for (int i = 0; i < MINIMUM_CALLS; i++) {
+            assertThatThrownBy(() -> service.triggerPipeline(1L, "main", Map.of()))
+                    .isInstanceOf(HttpServerErrorException.class);
+        }
+        assertThat(resilience.state()).isEqualTo(CircuitState.OPEN);
+
+        // Размыкатель общий: отклоняются и записи, и чтения, и реактивный клиент
+        assertThatThrownBy(() -> service.triggerPipeline(1L, "main", Map.of()))
+                .isInstanceOf(GitLabUnavailableException.class);
+        assertThatThrownBy(() -> service.getPipelineStatus(1L, 1L))
+                .isInstanceOf(GitLabUnavailableException.class);
+        assertThatThrownBy(() -> client.listPipelines(1L).block())
+                .isInstanceOf(GitLabUnavailableException.class);
+
+        assertThat(attempts("triggerPipeline")).isEqualTo(MINIMUM_CALLS);
+        assertThat(attempts("getPipeline") + attempts("listPipelines")).isZero();
+        assertThat(rejected("circuit_open")).isEqualTo(3);
+    }
+
+    @Test
+    void circuitStaysClosedBelowMinimumCalls() throws IOException {
+        start(1.0, Duration.ZERO);
+
+        for (int i = 0; i < MINIMUM_CALLS - 1; i++) {
+            assertThatThrownBy(() -> service.triggerPipeline(1L, "main", Map.of()))
+                    .isInstanceOf(HttpServerErrorException.class);
+        }
+
+        assertThat(resilience.state()).isEqualTo(CircuitState.CLOSED);
+        assertThat(resilience.snapshot().windowFailures()).isEqualTo(MINIMUM_CALLS - 1);
+    }
+
+    // =========================================================================
+    //  BULKHEAD
+    // =========================================================================
+
+    @Test
+    void blockingBulkheadRejectsCallsOverLimit() throws Exception {
+        start(0, Duration.ofMillis(500));
+        executor = Executors.newFixedThreadPool(MAX_CONCURRENT_CALLS);
+        for (int i = 0; i < MAX_CONCURRENT_CALLS; i++) {
+            long pipelineId = i;
+            executor.submit(() -> service.getPipelineStatus(1L, pipelineId));
+        }
+        awaitBusy("getPipeline", MAX_CONCURRENT_CALLS);
+
+        assertThatThrownBy(() -> service.getPipelineStatus(1L, 99L))
+                .isInstanceOf(GitLabUnavailableException.class);
+        assertThat(rejected("bulkhead_full")).isEqualTo(1);
+
+        // Лимит на операцию: другие операции проходят
+        assertThatThrownBy(() -> service.getPipelineJobs(1L, 99L))
+                .isInstanceOf(HttpClientErrorException.NotFound.class);
+    }
+
+    @Test
+    void reactiveBulkheadRejectsCallsOverLimitWithoutWaiting() throws Exception {
+        start(0, Duration.ofMillis(500));
+        for (int i = 0; i < MAX_CONCURRENT_CALLS; i++) {
+            client.getPipeline(1L, (long) i).subscribe(pipeline -> { }, error -> { });
+        }
+        awaitBusy("getPipeline", MAX_CONCURRENT_CALLS);
+
+        assertThatThrownBy(() -> client.getPipeline(1L, 99L).block())
+                .isInstanceOf(GitLabUnavailableException.class);
+        assertThat(rejected("bulkhead_full")).isEqualTo(1);
+        // Отказ bulkhead — не сбой GitLab и не повод для повтора
+        assertThat(retries("getPipeline")).isZero();
+    }
+
+    // =========================================================================
+    //  HELPERS
+    // =========================================================================
+
+    private void start(double errorRate, Duration latency) throws IOException {
+        server = new FakeGitLabServer(new Settings(0, latency, Duration.ZERO,
+                errorRate, 503, Duration.ofSeconds(3), "platform"));
+        server.start();
+        String url = "http://localhost:" + server.port();
+
+        GitLabConfig config = mock(GitLabConfig.class);
+        when(config.getGitlabUrl()).thenReturn(url);
+        when(config.getGitlabToken()).thenReturn("fake-gitlab-token");
+        when(config.getGitlabGroupId()).thenReturn(1L);
+
+        resilience = new GitLabResilience(meterRegistry,
+                MAX_CONCURRENT_CALLS, Duration.ofMillis(50),
+                10, MINIMUM_CALLS, 50, Duration.ofSeconds(30), 1,
+                MAX_ATTEMPTS, Duration.ofMillis(10), Duration.ofMillis(50));
+        GitLabReadCache readCache = new GitLabReadCache(meterRegistry, 100,
+                Duration.ofSeconds(1), Duration.ofMinutes(5));
+        service = new GitLabService(new RestTemplate(), config, readCache, resilience);
+        client = new GitLabClient(WebClient.builder().baseUrl(url).build(), config, readCache, resilience);
+    }
+
+    private void awaitBusy(String operation, int calls) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (resilience.snapshot().busyCalls().getOrDefault(operation, 0) < calls) {
+            assertThat(System.currentTimeMillis()).as("%s в работе: %d", operation, calls).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private long attempts(String operation) {
+        return meterRegistry.find("gitlab.calls").tag("operation", operation).timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    private double retries(String operation) {
+        Counter counter = meterRegistry.find("gitlab.calls.retries").tag("operation", operation).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.find("gitlab.calls.rejected").tag("reason", reason).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+}
@@ -0,0 +1,162 @@
+package com.devops.platform.service;
+
+import com.devops.platform.entity.Pipeline;
+import com.devops.platform.entity.Project;
+import com.devops.platform.entity.enums.PipelineStatus;
+import com.devops.platform.entity.enums.ProjectStatus;
+import com.devops.platform.repository.PipelineRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Вебхуки, пришедшие не по порядку и повторно: завершённый пайплайн не открывается
+ * заново, завершение учитывается в статистике один раз. Конфликт с трекером
+ * не теряет пачку: она применяется заново по одному пайплайну.
+ */
+class GitLabWebhookServiceTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final long GITLAB_PIPELINE_ID = 500L;
+    private static final long OTHER_GITLAB_PIPELINE_ID = 501L;
+
+    private PipelineRepository pipelineRepository;
+    private ProjectStatsService statsService;
+    private PipelineTracker pipelineTracker;
+    private GitLabWebhookService webhookService;
+    private Pipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipelineRepository = mock(PipelineRepository.class);
+        statsService = mock(ProjectStatsService.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        PipelineEventBus eventBus = new PipelineEventBus(64);
+
+        pipelineTracker = new PipelineTracker(pipelineRepository, mock(GitLabClient.class),
+                transactionTemplate, eventBus, statsService,
+                100, 10, 20, Duration.ofSeconds(2), Duration.ofSeconds(60), Duration.ofSeconds(15));
+        webhookService = new GitLabWebhookService(pipelineRepository, pipelineTracker,
+                transactionTemplate, eventBus, "secret", 100, 500);
+
+        pipeline = pipeline(1L, GITLAB_PIPELINE_ID);
+        when(pipelineRepository.findAllWithStagesByGitlabPipelineIdIn(anyCollection()))
+                .thenReturn(List.of(pipeline));
+    }
+
+    @Test
+    void finishedPipelineIsRecordedOnce() throws Exception {
+        deliver(pipelineEvent("success"));
+        deliver(pipelineEvent("success"));
+
+        assertThat(pipeline.getStatus()).isEqualTo(PipelineStatus.SUCCESS);
+        assertThat(pipeline.getNextPollAt()).isNull();
+        verify(statsService, times(1)).pipelineFinished(pipeline);
+    }
+
+    @Test
+    void lateRunningEventDoesNotReopenFinishedPipeline() throws Exception {
+        deliver(pipelineEvent("success"));
+        LocalDateTime finishedAt = pipeline.getFinishedAt();
+
+        deliver(pipelineEvent("running"));
+
+        assertThat(pipeline.getStatus()).isEqualTo(PipelineStatus.SUCCESS);
+        assertThat(pipeline.getFinishedAt()).isEqualTo(finishedAt);
+        assertThat(pipeline.getNextPollAt()).isNull();
+        verify(statsService, times(1)).pipelineFinished(pipeline);
+    }
+
+    @Test
+    void repeatedFinishDoesNotCountStatsTwice() {
+        // Пайплайн уже учтён, но снова стоит в очереди опроса (например, перезапущен в GitLab)
+        pipeline.setStatus(PipelineStatus.FAILED);
+        pipeline.setFinishedAt(LocalDateTime.now().minusMinutes(1));
+
+        pipelineTracker.afterExternalUpdate(pipeline);
+
+        assertThat(pipeline.getNextPollAt()).isNull();
+        verify(statsService, never()).pipelineFinished(any());
+    }
+
+    @Test
+    void conflictingBatchIsAppliedPipelineByPipeline() throws Exception {
+        Pipeline other = pipeline(2L, OTHER_GITLAB_PIPELINE_ID);
+        // Трекер держит второй пайплайн: каждая транзакция с ним падает на версии
+        when(pipelineRepository.findAllWithStagesByGitlabPipelineIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            if (ids.contains(OTHER_GITLAB_PIPELINE_ID)) {
+                throw new OptimisticLockingFailureException("pipelines.version");
+            }
+            return List.of(pipeline);
+        });
+
+        assertThat(webhookService.accept(pipelineEvent(GITLAB_PIPELINE_ID, "success"))).isTrue();
+        assertThat(webhookService.accept(pipelineEvent(OTHER_GITLAB_PIPELINE_ID, "success"))).isTrue();
+        webhookService.flush();
+
+        assertThat(pipeline.getStatus()).isEqualTo(PipelineStatus.SUCCESS);
+        assertThat(other.getStatus()).isEqualTo(PipelineStatus.RUNNING);
+        verify(pipelineRepository, times(3)).findAllWithStagesByGitlabPipelineIdIn(anyCollection());
+    }
+
+    @Test
+    void transientConflictDoesNotLoseBatch() throws Exception {
+        when(pipelineRepository.findAllWithStagesByGitlabPipelineIdIn(anyCollection()))
+                .thenThrow(new OptimisticLockingFailureException("pipelines.version"))
+                .thenReturn(List.of(pipeline));
+
+        deliver(pipelineEvent("success"));
+
+        assertThat(pipeline.getStatus()).isEqualTo(PipelineStatus.SUCCESS);
+        verify(statsService, times(1)).pipelineFinished(pipeline);
+    }
+
+    private void deliver(JsonNode payload) {
+        assertThat(webhookService.accept(payload)).isTrue();
+        webhookService.flush();
+    }
+
+    private static JsonNode pipelineEvent(String status) throws Exception {
+        return pipelineEvent(GITLAB_PIPELINE_ID, status);
+    }
+
+    private static JsonNode pipelineEvent(long gitlabPipelineId, String status) throws Exception {
+        return JSON.readTree("""
+                {"object_kind": "pipeline",
+                 "object_attributes": {"id": %d, "status": "%s"},
+                 "builds": [{"id": %d, "name": "build", "stage": "build", "status": "%s"}]}
+                """.formatted(gitlabPipelineId, status, gitlabPipelineId * 10 + 1, status));
+    }
+
+    private static Pipeline pipeline(Long id, Long gitlabPipelineId) {
+        return Pipeline.builder()
+                .id(id)
+                .gitlabPipelineId(gitlabPipelineId)
+                .status(PipelineStatus.RUNNING)
+                .startedAt(LocalDateTime.now().minusMinutes(5))
+                .nextPollAt(LocalDateTime.now().plusSeconds(2))
+                .project(Project.builder().id(10L).status(ProjectStatus.DEVELOPING).build())
+                .build();
+    }
+}
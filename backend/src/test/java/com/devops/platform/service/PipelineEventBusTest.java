@@ -0,0 +1,83 @@
+package com.devops.platform.service;
+
+import com.devops.platform.dto.response.PipelineResponse;
+import com.devops.platform.dto.response.PipelineStageResponse;
+import com.devops.platform.service.PipelineEventBus.PipelineEvent;
+import com.devops.platform.service.PipelineEventBus.PipelineUpdate;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Подписка на {@link PipelineEventBus}: изменение, опубликованное во время чтения снимка,
+ * не теряется; первое событие по пайплайну подписчик получает со всеми стадиями,
+ * даже если канал уже отправлял их другим зрителям.
+ */
+class PipelineEventBusTest {
+
+    private static final long PROJECT_ID = 1L;
+
+    private final PipelineEventBus eventBus = new PipelineEventBus(64);
+
+    @Test
+    void changePublishedWhileReadingSnapshotArrivesAfterIt() {
+        PipelineResponse running = pipeline("running", "running", "pending");
+        PipelineResponse success = pipeline("success", "success", "success");
+        List<PipelineEvent> events = new CopyOnWriteArrayList<>();
+
+        Disposable subscription = eventBus.subscribe(PROJECT_ID, () -> {
+            // Трекер применил изменение, пока снимок читался из БД
+            eventBus.publish(new PipelineUpdate(PROJECT_ID, success));
+            return running;
+        }).subscribe(events::add);
+
+        assertThat(events).extracting(PipelineEvent::snapshot).containsExactly(true, false);
+        assertThat(events.get(0).pipeline()).isEqualTo(running);
+        assertThat(events.get(1).pipeline()).isEqualTo(success);
+        subscription.dispose();
+    }
+
+    @Test
+    void firstChangePerSubscriberCarriesAllStages() {
+        List<PipelineEvent> early = new CopyOnWriteArrayList<>();
+        List<PipelineEvent> late = new CopyOnWriteArrayList<>();
+        Disposable first = eventBus.subscribe(PROJECT_ID, () -> null).subscribe(early::add);
+        eventBus.publish(new PipelineUpdate(PROJECT_ID, pipeline("running", "success", "running")));
+
+        Disposable second = eventBus.subscribe(PROJECT_ID, () -> null).subscribe(late::add);
+        // Меняется только deployUrl: дельта канала без стадий
+        PipelineResponse deployed = pipeline("running", "success", "running");
+        deployed.setDeployUrl("http://demo.apps.local");
+        eventBus.publish(new PipelineUpdate(PROJECT_ID, deployed));
+
+        assertThat(early).hasSize(2);
+        assertThat(early.get(1).pipeline().getStages()).isNull();
+        assertThat(early.get(1).pipeline().getDeployUrl()).isEqualTo("http://demo.apps.local");
+        assertThat(late).singleElement()
+                .extracting(PipelineEvent::pipeline)
+                .isEqualTo(deployed);
+        first.dispose();
+        second.dispose();
+    }
+
+    @Test
+    void channelIsReleasedWhenLastSubscriberLeaves() {
+        Disposable first = eventBus.subscribe(PROJECT_ID, () -> null).subscribe();
+        Disposable second = eventBus.subscribe(PROJECT_ID, () -> null).subscribe();
+
+        first.dispose();
+        assertThat(eventBus.hasSubscribers(PROJECT_ID)).isTrue();
+        second.dispose();
+        assertThat(eventBus.hasSubscribers(PROJECT_ID)).isFalse();
+    }
+
+    private static PipelineResponse pipeline(String status, String build, String test) {
+        return new PipelineResponse(10L, status,
+                List.of(new PipelineStageResponse("build", build), new PipelineStageResponse("test", test)),
+                null, null, null);
+    }
+}
@@ -0,0 +1,120 @@
+package com.devops.platform.service;
+
+import com.devops.platform.entity.Project;
+import com.devops.platform.entity.ProvisioningStep;
+import com.devops.platform.entity.enums.PipelineStatus;
+import com.devops.platform.entity.enums.ProjectStatus;
+import com.devops.platform.entity.enums.ProvisioningStepType;
+import com.devops.platform.repository.ProjectRepository;
+import com.devops.platform.repository.ProvisioningStepRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Восстановление проектов, застрявших в CREATED после перезапуска узла.
+ */
+class ProjectProvisioningServiceTest {
+
+    private static final long PROJECT_ID = 10L;
+
+    private ProjectRepository projectRepository;
+    private ProvisioningStepRepository stepRepository;
+    private TaskExecutor executor;
+    private ProjectProvisioningService provisioningService;
+    private Project project;
+    private List<ProvisioningStep> steps;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        stepRepository = mock(ProvisioningStepRepository.class);
+        executor = mock(TaskExecutor.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        provisioningService = new ProjectProvisioningService(projectRepository, stepRepository,
+                mock(GitLabClient.class), mock(GitLabService.class), mock(ProjectTemplateService.class),
+                transactionTemplate, executor, new SimpleMeterRegistry(),
+                Duration.ofMinutes(10), 50);
+
+        project = Project.builder().id(PROJECT_ID).status(ProjectStatus.CREATED).build();
+        steps = new ArrayList<>();
+        for (ProvisioningStepType type : ProvisioningStepType.values()) {
+            steps.add(ProvisioningStep.builder().step(type).project(project).build());
+        }
+        when(projectRepository.findStaleIds(eq(ProjectStatus.CREATED), any(), any()))
+                .thenReturn(List.of(PROJECT_ID));
+        when(projectRepository.claimStale(eq(PROJECT_ID), eq(ProjectStatus.CREATED), any(), any()))
+                .thenReturn(1);
+        when(projectRepository.findById(PROJECT_ID)).thenReturn(Optional.of(project));
+        when(stepRepository.findByProjectIdOrderByIdAsc(PROJECT_ID)).thenReturn(steps);
+    }
+
+    @Test
+    void projectThatNeverStartedIsResubmitted() {
+        provisioningService.recoverStale();
+
+        verify(executor, times(1)).execute(any());
+        assertThat(project.getStatus()).isEqualTo(ProjectStatus.CREATED);
+    }
+
+    @Test
+    void interruptedProjectIsFailed() {
+        steps.get(0).setStatus(PipelineStatus.SUCCESS);
+        steps.get(1).setStatus(PipelineStatus.RUNNING);
+
+        provisioningService.recoverStale();
+
+        verify(executor, never()).execute(any());
+        assertThat(project.getStatus()).isEqualTo(ProjectStatus.FAILED);
+        assertThat(steps).extracting(ProvisioningStep::getStatus).containsExactly(
+                PipelineStatus.SUCCESS, PipelineStatus.SKIPPED, PipelineStatus.SKIPPED);
+    }
+
+    @Test
+    void projectClaimedByAnotherNodeIsLeftAlone() {
+        when(projectRepository.claimStale(eq(PROJECT_ID), eq(ProjectStatus.CREATED), any(), any()))
+                .thenReturn(0);
+
+        provisioningService.recoverStale();
+
+        verify(executor, never()).execute(any());
+        assertThat(project.getStatus()).isEqualTo(ProjectStatus.CREATED);
+    }
+
+    @Test
+    void projectQueuedOnThisNodeIsNotResubmitted() {
+        provisioningService.startProvisioning(PROJECT_ID);
+
+        provisioningService.recoverStale();
+
+        verify(executor, times(1)).execute(any());
+        verify(projectRepository, never()).claimStale(any(), any(), any(), any());
+    }
+}
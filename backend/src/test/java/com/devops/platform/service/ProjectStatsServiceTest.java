@@ -0,0 +1,81 @@
+package com.devops.platform.service;
+
+import com.devops.platform.entity.Project;
+import com.devops.platform.entity.User;
+import com.devops.platform.repository.OwnerStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Первые проекты владельца без строки owner_stats, созданные одновременно:
+ * ни одна транзакция не падает на конфликте ключа, счётчик учитывает все проекты.
+ */
+@DataJpaTest
+@Import(ProjectStatsService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProjectStatsServiceTest {
+
+    private static final int PROJECTS = 8;
+
+    @Autowired
+    private ProjectStatsService statsService;
+
+    @Autowired
+    private OwnerStatsRepository ownerStatsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentFirstProjectsOfOwnerAreAllCounted() throws Exception {
+        long ownerId = 42L;
+        User owner = User.builder().id(ownerId).build();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CyclicBarrier start = new CyclicBarrier(PROJECTS);
+        ExecutorService executor = Executors.newFixedThreadPool(PROJECTS);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (long projectId = 1; projectId <= PROJECTS; projectId++) {
+                Project project = Project.builder().id(projectId).owner(owner).build();
+                results.add(executor.submit(() -> {
+                    start.await();
+                    transaction.executeWithoutResult(tx -> statsService.projectCreated(project));
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ownerStatsRepository.findById(ownerId).orElseThrow().getProjects())
+                .isEqualTo(PROJECTS);
+    }
+
+    @Test
+    void registrationCreatesEmptyOwnerRow() {
+        long ownerId = 43L;
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx ->
+                statsService.ownerRegistered(User.builder().id(ownerId).build()));
+
+        assertThat(ownerStatsRepository.findById(ownerId).orElseThrow().getProjects()).isZero();
+    }
+}
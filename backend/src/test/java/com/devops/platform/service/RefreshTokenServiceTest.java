@@ -0,0 +1,114 @@
+package com.devops.platform.service;
+
+import com.devops.platform.exception.UnauthorizedException;
+import com.devops.platform.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Ротация refresh-токенов: повторно предъявленный предыдущий секрет отзывает сессию,
+ * подобранный секрет к известному id — нет (иначе перебором id можно разлогинить всех).
+ */
+@DataJpaTest
+@Import({RefreshTokenService.class, RefreshTokenServiceTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    private static final long USER_ID = 7L;
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void rotationIssuesNewSecretForSameSession() {
+        String issued = refreshTokenService.issue(USER_ID);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(issued);
+        RefreshTokenService.Rotation next = refreshTokenService.rotate(rotation.refreshToken());
+
+        assertThat(rotation.userId()).isEqualTo(USER_ID);
+        assertThat(rotation.refreshToken()).isNotEqualTo(issued);
+        assertThat(sessionId(rotation.refreshToken())).isEqualTo(sessionId(issued));
+        assertThat(next.refreshToken()).isNotEqualTo(rotation.refreshToken());
+        assertThat(refreshTokenRepository.existsById(sessionId(issued))).isTrue();
+    }
+
+    @Test
+    void replayedPreviousTokenRevokesSession() {
+        double reused = count("reused");
+        String issued = refreshTokenService.issue(USER_ID);
+        String rotated = refreshTokenService.rotate(issued).refreshToken();
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(issued))
+                .isInstanceOf(UnauthorizedException.class);
+
+        assertThat(refreshTokenRepository.existsById(sessionId(issued))).isFalse();
+        assertThatThrownBy(() -> refreshTokenService.rotate(rotated))
+                .isInstanceOf(UnauthorizedException.class);
+        assertThat(count("reused")).isEqualTo(reused + 1);
+    }
+
+    @Test
+    void forgedSecretDoesNotRevokeSession() {
+        double invalid = count("invalid");
+        double reused = count("reused");
+        String issued = refreshTokenService.issue(USER_ID);
+        String rotated = refreshTokenService.rotate(issued).refreshToken();
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(sessionId(issued) + ".garbage"))
+                .isInstanceOf(UnauthorizedException.class);
+
+        assertThat(refreshTokenRepository.existsById(sessionId(issued))).isTrue();
+        assertThat(refreshTokenService.rotate(rotated).userId()).isEqualTo(USER_ID);
+        assertThat(count("invalid")).isEqualTo(invalid + 1);
+        assertThat(count("reused")).isEqualTo(reused);
+    }
+
+    @Test
+    void sessionIdsAreRandomUuids() {
+        UUID first = sessionId(refreshTokenService.issue(USER_ID));
+        UUID second = sessionId(refreshTokenService.issue(USER_ID));
+
+        assertThat(first.version()).isEqualTo(4);
+        assertThat(second).isNotEqualTo(first);
+        // Числовой id старого формата не принимается
+        assertThatThrownBy(() -> refreshTokenService.rotate("1.garbage"))
+                .isInstanceOf(UnauthorizedException.class);
+    }
+
+    private static UUID sessionId(String refreshToken) {
+        return UUID.fromString(refreshToken.substring(0, refreshToken.indexOf('.')));
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("auth.refresh", "result", result).count();
+    }
+}
@@ -0,0 +1,53 @@
+-- =============================================
+-- Планы частых запросов бэкенда (не init-скрипт — запускать вручную):
+--   docker exec -i devops-postgres psql -U postgres -d devops_platform \
+--     < database/explain_hot_queries.sql
+-- В каждом плане ожидается Index Scan / Index Only Scan / Bitmap Index Scan
+-- по указанному индексу, а не Seq Scan. На почти пустых таблицах планировщик
+-- может выбрать Seq Scan — для проверки его можно запретить.
+-- Те же проверки автоматически: HotQueryPlanTest (backend, mvn test).
+SET enable_seqscan = off;
+-- =============================================
+
+\echo '== findByOwnerOrderByCreatedAtDesc -> idx_projects_owner_created'
+EXPLAIN SELECT * FROM projects WHERE owner_id = 1 ORDER BY created_at DESC;
+
+\echo '== findByIdAndOwner -> projects_pkey'
+EXPLAIN SELECT * FROM projects WHERE id = 1 AND owner_id = 1;
+
+\echo '== createProject, проверка имени -> uk_projects_owner_name'
+EXPLAIN SELECT 1 FROM projects WHERE owner_id = 1 AND name = 'demo';
+
+\echo '== findLatestWithStages / findHistory -> idx_pipelines_project_started'
+EXPLAIN SELECT id FROM pipelines WHERE project_id = 1 ORDER BY started_at DESC, id DESC LIMIT 21;
+
+\echo '== findHistoryAfter -> idx_pipelines_project_started'
+EXPLAIN SELECT id FROM pipelines
+WHERE project_id = 1 AND (started_at < now() OR (started_at = now() AND id < 100))
+ORDER BY started_at DESC, id DESC LIMIT 21;
+
+\echo '== findDueForPolling -> idx_pipelines_next_poll'
+EXPLAIN SELECT id FROM pipelines WHERE next_poll_at <= now() ORDER BY next_poll_at LIMIT 100;
+
+\echo '== findAllWithStagesByGitlabPipelineIdIn -> idx_pipelines_gitlab_id'
+EXPLAIN SELECT id FROM pipelines WHERE gitlab_pipeline_id IN (1, 2, 3);
+
+\echo '== findSummariesByPipelineIdIn -> idx_pipeline_stages_pipeline'
+EXPLAIN SELECT pipeline_id, name, status FROM pipeline_stages WHERE pipeline_id IN (1, 2, 3) ORDER BY id;
+
+\echo '== findByProjectIdAndStep / findByProjectIdOrderByIdAsc -> idx_provisioning_steps_project'
+EXPLAIN SELECT * FROM provisioning_steps WHERE project_id = 1 AND step = 'PUSH_FILES';
+
+\echo '== ProjectStatsRepository.findByProjectIdAndOwnerId -> project_stats_pkey'
+EXPLAIN SELECT * FROM project_stats WHERE project_id = 1 AND owner_id = 1;
+
+\echo '== RefreshTokenRepository.deleteByUserId -> idx_refresh_tokens_user'
+EXPLAIN DELETE FROM refresh_tokens WHERE user_id = 1;
+
+\echo '== RefreshTokenRepository.deleteExpired -> idx_refresh_tokens_expires'
+EXPLAIN DELETE FROM refresh_tokens WHERE expires_at < now();
+
+\echo '== findByEmail -> уникальный индекс по email'
+EXPLAIN SELECT * FROM users WHERE email = 'test@example.com';
+
+RESET enable_seqscan;
@@ -22,12 +22,51 @@ api.interceptors.request.use(
   }
 )
 
+// Эндпоинты входа: их 401 означает неверные данные, а не истёкший токен
+const PUBLIC_AUTH_URLS = ['/auth/login', '/auth/register', '/auth/refresh', '/auth/logout']
+
+// Один refresh на все запросы, получившие 401 одновременно:
+// refresh-токен одноразовый, повторная отправка закрыла бы сессию
+let refreshing = null
+
+export function refreshAccessToken() {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem('refreshToken')
+    refreshing = (refreshToken
+      ? axios.post('/api/auth/refresh', { refreshToken })
+      : Promise.reject(new Error('No refresh token')))
+      .then(({ data }) => {
+        localStorage.setItem('token', data.token)
+        localStorage.setItem('refreshToken', data.refreshToken)
+        return data.token
+      })
+      .finally(() => {
+        refreshing = null
+      })
+  }
+  return refreshing
+}
+
 // Response interceptor - обработка ошибок
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
+  async (error) => {
+    const original = error.config
+    // Истёкший access-токен: обновляем и повторяем запрос один раз
+    if (error.response?.status === 401 && original && !original._retry
+        && !PUBLIC_AUTH_URLS.includes(original.url)) {
+      original._retry = true
+      try {
+        const token = await refreshAccessToken()
+        original.headers.Authorization = `Bearer ${token}`
+        return api(original)
+      } catch (refreshError) {
+        // refresh не удался — сессия закончилась, ниже уходим на /login
+      }
+    }
     if (error.response?.status === 401) {
       localStorage.removeItem('token')
+      localStorage.removeItem('refreshToken')
       window.location.href = '/login'
     }
     return Promise.reject(error)
@@ -11,6 +11,11 @@ export const authService = {
     return response.data
   },
 
+  async logout(refreshToken) {
+    const response = await api.post('/auth/logout', { refreshToken })
+    return response.data
+  },
+
   async getCurrentUser() {
     const response = await api.get('/auth/me')
     return response.data
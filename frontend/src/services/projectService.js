@@ -1,4 +1,15 @@
-import api from './api'
+import api, { refreshAccessToken } from './api'
+
+// Блок SSE: строки event:/data:, комментарии (keep-alive) пропускаются
+function parseEvent(block) {
+  let event = 'message'
+  const data = []
+  for (const line of block.split('\n')) {
+    if (line.startsWith('event:')) event = line.slice(6).trim()
+    else if (line.startsWith('data:')) data.push(line.slice(5).trimStart())
+  }
+  return data.length ? { event, data: JSON.parse(data.join('\n')) } : null
+}
 
 export const projectService = {
   async getProjects() {
@@ -16,8 +27,59 @@ export const projectService = {
     return response.data
   },
 
+  async getProvisioningStatus(id) {
+    const response = await api.get(`/projects/${id}/provisioning`)
+    return response.data
+  },
+
   async deleteProject(id) {
     const response = await api.delete(`/projects/${id}`)
     return response.data
+  },
+
+  // Живой статус пайплайна (SSE): onEvent('snapshot' | 'pipeline', data).
+  // EventSource не умеет заголовок Authorization, поэтому fetch и разбор потока вручную.
+  // Возвращает функцию, закрывающую поток.
+  streamPipeline(id, onEvent, onError) {
+    const controller = new AbortController()
+
+    const open = async (retried) => {
+      const response = await fetch(`/api/projects/${id}/pipeline/stream`, {
+        headers: {
+          Accept: 'text/event-stream',
+          Authorization: `Bearer ${localStorage.getItem('token')}`
+        },
+        signal: controller.signal
+      })
+      // Истёкший access-токен: обновляем и переподключаемся один раз
+      if (response.status === 401 && !retried) {
+        await refreshAccessToken()
+        return open(true)
+      }
+      if (!response.ok) {
+        throw new Error(`HTTP ${response.status}`)
+      }
+
+      const reader = response.body.pipeThrough(new TextDecoderStream()).getReader()
+      let buffer = ''
+      for (;;) {
+        const { value, done } = await reader.read()
+        if (done) {
+          throw new Error('Поток закрыт сервером')
+        }
+        buffer += value
+        let end
+        while ((end = buffer.indexOf('\n\n')) >= 0) {
+          const parsed = parseEvent(buffer.slice(0, end))
+          buffer = buffer.slice(end + 2)
+          if (parsed) onEvent(parsed.event, parsed.data)
+        }
+      }
+    }
+
+    open(false).catch((error) => {
+      if (!controller.signal.aborted) onError?.(error)
+    })
+    return () => controller.abort()
   }
 }
\ No newline at end of file
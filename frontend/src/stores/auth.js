@@ -21,6 +21,7 @@ export const useAuthStore = defineStore('auth', {
         this.token = response.token
         this.user = response.user
         localStorage.setItem('token', response.token)
+        localStorage.setItem('refreshToken', response.refreshToken)
         return response
       } finally {
         this.loading = false
@@ -34,6 +35,7 @@ export const useAuthStore = defineStore('auth', {
         this.token = response.token
         this.user = response.user
         localStorage.setItem('token', response.token)
+        localStorage.setItem('refreshToken', response.refreshToken)
         return response
       } finally {
         this.loading = false
@@ -59,9 +61,15 @@ export const useAuthStore = defineStore('auth', {
     },
 
     logout() {
+      const refreshToken = localStorage.getItem('refreshToken')
+      if (refreshToken) {
+        // Закрываем сессию на сервере; ответ не ждём
+        authService.logout(refreshToken).catch(() => {})
+      }
       this.user = null
       this.token = null
       localStorage.removeItem('token')
+      localStorage.removeItem('refreshToken')
     }
   }
 })
\ No newline at end of file
@@ -0,0 +1,29 @@
+#!/bin/sh
+# Проигрывает записанные вебхуки GitLab (scripts/gitlab-webhooks/*.json) в платформу —
+# замена настоящему GitLab при локальной проверке /api/webhooks/gitlab.
+#
+# Использование:
+#   GITLAB_WEBHOOK_SECRET=secret ./gitlab-webhook-replay.sh <gitlab_pipeline_id> <gitlab_project_id> [api_url]
+set -e
+
+PIPELINE_ID=${1:?gitlab pipeline id required}
+PROJECT_ID=${2:?gitlab project id required}
+API_URL=${3:-http://localhost:8080}
+SECRET=${GITLAB_WEBHOOK_SECRET:?GITLAB_WEBHOOK_SECRET required}
+DELAY=${REPLAY_DELAY:-0.3}
+HOOKS_DIR=$(dirname "$0")/gitlab-webhooks
+
+for file in "$HOOKS_DIR"/*.json; do
+    case "$(basename "$file")" in
+        *pipeline*) EVENT="Pipeline Hook" ;;
+        *)          EVENT="Job Hook" ;;
+    esac
+    STATUS=$(sed -e "s/__PIPELINE_ID__/$PIPELINE_ID/g" -e "s/__PROJECT_ID__/$PROJECT_ID/g" "$file" \
+        | curl -s -o /dev/null -w '%{http_code}' -X POST "$API_URL/api/webhooks/gitlab" \
+            -H 'Content-Type: application/json' \
+            -H "X-Gitlab-Event: $EVENT" \
+            -H "X-Gitlab-Token: $SECRET" \
+            --data-binary @-)
+    echo "$(basename "$file") -> HTTP $STATUS"
+    sleep "$DELAY"
+done
@@ -0,0 +1,117 @@
+#!/bin/sh
+# Сравнение фонового создания проектов на платформенных и виртуальных потоках
+# (spring.threads.virtual.enabled=false/true). Для каждого режима поднимает
+# приложение с профилями dev,fake-gitlab, гоняет сценарий projects из
+# PlatformSimulation и записывает в backend/target/virtual-threads/results.md:
+# пик одновременных созданий на узле (projects.provisioning.active),
+# число созданных проектов, среднее и максимальное время создания, пик потоков JVM.
+#
+# Виртуальные потоки требуют Java 21; на JDK 17 (профиль jdk17) прогоняется
+# только режим platform.
+#
+# Использование:
+#   ./loadtest-virtual-threads.sh [rps] [duration_seconds]
+# Окружение: LOADTEST_PORT (8080), LOADTEST_MANAGEMENT_PORT (8091, actuator), FAKE_GITLAB_LATENCY (200ms),
+#   PROVISIONING_CORE_SIZE / PROVISIONING_MAX_SIZE / PROVISIONING_QUEUE_CAPACITY — пул режима platform,
+#   PROVISIONING_VIRTUAL_MAX_CONCURRENCY (200) — лимит режима virtual.
+set -e
+
+RPS=${1:-10}
+DURATION=${2:-60}
+PORT=${LOADTEST_PORT:-8080}
+MANAGEMENT_PORT=${LOADTEST_MANAGEMENT_PORT:-8091}
+API_URL=http://localhost:$PORT
+ACTUATOR_URL=http://localhost:$MANAGEMENT_PORT/actuator
+BACKEND=$(cd "$(dirname "$0")/../backend" && pwd)
+OUT=$BACKEND/target/virtual-threads
+# Чем дольше отвечает GitLab, тем дольше поток создания стоит в ожидании
+export FAKE_GITLAB_LATENCY=${FAKE_GITLAB_LATENCY:-200ms}
+
+JAVA_VERSION=$(java -XshowSettings:properties -version 2>&1 \
+    | sed -n 's/^ *java.specification.version = //p')
+if [ "${JAVA_VERSION%%.*}" -ge 21 ]; then
+    MODES="false true"
+else
+    MODES="false"
+    echo "Java $JAVA_VERSION: виртуальные потоки недоступны, прогоняется только platform" >&2
+fi
+
+# metric <name> <statistic> [tag] — значение из /actuator/metrics
+metric() {
+    curl -s "$ACTUATOR_URL/metrics/$1${3:+?tag=$3}" | tr '{' '\n' \
+        | sed -n "s/.*\"statistic\":\"$2\",\"value\":\([0-9.E+-]*\).*/\1/p"
+}
+
+cd "$BACKEND"
+mvn -B -q -DskipTests package
+mkdir -p "$OUT"
+# Копия: прогон Gatling (mvn verify) пересобирает jar в target/, пока приложение работает
+JAR=$OUT/platform.jar
+cp "$(ls target/*.jar | grep -v '\.original$' | head -n 1)" "$JAR"
+RESULTS=$OUT/results.md
+
+{
+    echo "# Создание проектов: platform vs virtual threads"
+    echo
+    echo "Java $JAVA_VERSION, сценарий projects, $RPS польз./с, $DURATION с, задержка GitLab $FAKE_GITLAB_LATENCY,"
+    echo "пул provisioning: core=${PROVISIONING_CORE_SIZE:-4} max=${PROVISIONING_MAX_SIZE:-8} queue=${PROVISIONING_QUEUE_CAPACITY:-100},"
+    echo "virtual: лимит ${PROVISIONING_VIRTUAL_MAX_CONCURRENCY:-200} одновременных созданий"
+    echo
+    echo "| virtual | пик одновременных созданий | создано | с ошибкой | среднее, с | максимум, с | пик потоков JVM |"
+    echo "|---------|----------------------------|---------|-----------|------------|-------------|-----------------|"
+} > "$RESULTS"
+
+for VIRTUAL in $MODES; do
+    echo "=== spring.threads.virtual.enabled=$VIRTUAL ==="
+    SPRING_PROFILES_ACTIVE=dev,fake-gitlab SPRING_THREADS_VIRTUAL_ENABLED=$VIRTUAL \
+        SERVER_PORT=$PORT MANAGEMENT_PORT=$MANAGEMENT_PORT LOG_LEVEL=INFO \
+        java -jar "$JAR" > "$OUT/app-virtual-$VIRTUAL.log" 2>&1 &
+    APP=$!
+    trap 'kill $APP 2>/dev/null' EXIT
+
+    for i in $(seq 1 120); do
+        curl -sf -o /dev/null "$ACTUATOR_URL/health" && break
+        kill -0 $APP 2>/dev/null || { echo "Приложение не поднялось, см. $OUT/app-virtual-$VIRTUAL.log" >&2; exit 1; }
+        sleep 1
+    done
+
+    # Пик projects.provisioning.active — опрос каждые 200 мс, пока идёт прогон
+    PEAK_FILE=$OUT/peak-virtual-$VIRTUAL
+    echo 0 > "$PEAK_FILE"
+    (
+        PEAK=0
+        while kill -0 $APP 2>/dev/null; do
+            VALUE=$(metric projects.provisioning.active VALUE)
+            VALUE=${VALUE%%.*}
+            if [ "${VALUE:-0}" -gt "$PEAK" ]; then
+                PEAK=$VALUE
+                echo "$PEAK" > "$PEAK_FILE"
+            fi
+            sleep 0.2
+        done
+    ) &
+    SAMPLER=$!
+
+    # Пороги Gatling отключены: здесь измерение, а не проверка SLO
+    mvn -B -q -Ploadtest -DskipTests verify -Dscenarios=projects -DprojectRps="$RPS" \
+        -Dduration="$DURATION" -DbaseUrl="$API_URL" -Dp99Ms=600000 -DmaxFailedPercent=100 || true
+
+    CREATED=$(metric projects.provisioning COUNT outcome:success)
+    FAILED=$(metric projects.provisioning COUNT outcome:failure)
+    TOTAL=$(metric projects.provisioning TOTAL_TIME outcome:success)
+    MAX=$(metric projects.provisioning MAX outcome:success)
+    THREADS=$(metric jvm.threads.peak VALUE)
+
+    kill $SAMPLER 2>/dev/null || true
+    kill $APP
+    wait $APP 2>/dev/null || true
+    trap - EXIT
+
+    awk -v virtual="$VIRTUAL" -v peak="$(cat "$PEAK_FILE")" -v created="${CREATED:-0}" \
+        -v failed="${FAILED:-0}" -v total="${TOTAL:-0}" -v max="${MAX:-0}" -v threads="${THREADS:-0}" \
+        'BEGIN { mean = created > 0 ? total / created : 0;
+                 printf "| %s | %d | %d | %d | %.2f | %.2f | %d |\n", virtual, peak, created, failed, mean, max, threads }' \
+        >> "$RESULTS"
+done
+
+cat "$RESULTS"